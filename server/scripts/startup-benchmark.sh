@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Measures the time from JVM launch to the first successful GET /api/books.
+#
+#   scripts/startup-benchmark.sh                 # runs target/lms-*.jar 5 times
+#   RUNS=10 MAX_MS=4000 scripts/startup-benchmark.sh -- java -XX:SharedArchiveFile=target/application.jsa \
+#       -Dspring.aot.enabled=true -Dspring.profiles.active=fast \
+#       -cp "target/classes:target/cds/lib/*" com.library.lms.LibraryManagementSystemApplication
+#
+# Exits non-zero when the median exceeds MAX_MS, so it can guard against startup regressions.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+MAX_MS=${MAX_MS:-0}
+
+if [[ "${1:-}" == "--" ]]; then
+  shift
+  COMMAND=("$@")
+else
+  COMMAND=(java -jar "$(ls target/lms-*.jar | head -n 1)")
+fi
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  start=$(date +%s%N)
+  "${COMMAND[@]}" --server.port="$PORT" > "target/startup-run-$run.log" 2>&1 &
+  pid=$!
+
+  until curl -sf -o /dev/null "http://localhost:$PORT/api/books"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "run $run: application exited, see target/startup-run-$run.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  results+=("$elapsed")
+  echo "run $run: ${elapsed} ms"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+done
+
+median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+echo "median time to first GET /api/books: ${median} ms"
+
+if (( MAX_MS > 0 && median > MAX_MS )); then
+  echo "median ${median} ms exceeds MAX_MS=${MAX_MS}" >&2
+  exit 1
+fi
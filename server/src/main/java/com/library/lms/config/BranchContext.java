@@ -0,0 +1,38 @@
+package com.library.lms.config;
+
+import java.util.function.Supplier;
+
+// Holds the library branch the current thread works against; unset means all branches
+public final class BranchContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private BranchContext() {
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String branchId) {
+        CURRENT.set(branchId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T callIn(String branchId, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(branchId);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.lms.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// One-time migration: assigns rows created before branch partitioning to the default branch
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BranchDataInitializer implements ApplicationRunner {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("books", "book_borrowing", "book_borrowing_archive");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${lms.branches.default:main}")
+    private String defaultBranch;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String table : PARTITIONED_TABLES) {
+            // Once every row has a branch this is a single probe of the branch index per table
+            Boolean unassigned = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + table + " WHERE branch_id IS NULL)", Boolean.class);
+            if (!Boolean.TRUE.equals(unassigned)) {
+                continue;
+            }
+            int updated = jdbcTemplate.update("UPDATE " + table + " SET branch_id = ? WHERE branch_id IS NULL", defaultBranch);
+            if (updated > 0) {
+                log.info("Assigned {} rows in {} to branch {}", updated, table, defaultBranch);
+            }
+        }
+    }
+}
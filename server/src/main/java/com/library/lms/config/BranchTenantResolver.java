@@ -0,0 +1,36 @@
+package com.library.lms.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Partitions @TenantId entities by branch; threads without a branch (scheduled jobs) see every branch
+@Component
+public class BranchTenantResolver implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
+
+    public static final String ALL_BRANCHES = "*";
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        String branchId = BranchContext.get();
+        return branchId != null ? branchId : ALL_BRANCHES;
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantId) {
+        return ALL_BRANCHES.equals(tenantId);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
@@ -0,0 +1,91 @@
+package com.library.lms.config;
+
+import com.library.lms.dto.DiagnosticsSummary;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hikari reports how long each getConnection() waited; kept per pool in power-of-two microsecond buckets
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private static final int BUCKETS = 40;
+
+    private final Map<String, PoolTracker> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return pools.computeIfAbsent(poolName, name -> new PoolTracker(name, poolStats));
+    }
+
+    public List<DiagnosticsSummary.PoolWaitStats> snapshot() {
+        return pools.values().stream().map(PoolTracker::snapshot).toList();
+    }
+
+    private static class PoolTracker implements IMetricsTracker {
+        private final String name;
+        private final PoolStats poolStats;
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        PoolTracker(String name, PoolStats poolStats) {
+            this.name = name;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            totalWaitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        DiagnosticsSummary.PoolWaitStats snapshot() {
+            long count = acquisitions.sum();
+            double average = count == 0 ? 0 : totalWaitNanos.sum() / (double) count / 1_000_000;
+            return new DiagnosticsSummary.PoolWaitStats(
+                name,
+                count,
+                timeouts.sum(),
+                average,
+                p99Millis(count),
+                maxWaitNanos.get() / 1_000_000.0,
+                poolStats.getActiveConnections(),
+                poolStats.getIdleConnections(),
+                poolStats.getPendingThreads()
+            );
+        }
+
+        // Upper bound of the bucket holding the 99th percentile
+        private double p99Millis(long count) {
+            long target = (long) Math.ceil(count * 0.99);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= target && seen > 0) {
+                    return (1L << (i + 1)) / 1000.0;
+                }
+            }
+            return 0;
+        }
+    }
+}
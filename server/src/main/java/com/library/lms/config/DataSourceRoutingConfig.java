@@ -0,0 +1,89 @@
+package com.library.lms.config;
+
+import com.library.lms.service.SlowQueryLog;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Configuration
+public class DataSourceRoutingConfig {
+
+    // Pool settings bind from spring.datasource.hikari.* as they would for Boot's own datasource;
+    // the name and metrics set here are defaults the properties can override
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, ConnectionPoolMetrics poolMetrics) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(poolMetrics);
+        return primary;
+    }
+
+    // Decided here at runtime rather than with a bean condition, which process-aot would freeze at build time;
+    // null leaves no replica and dataSource falls back to the primary alone. The pool binds from
+    // lms.datasource.replica.hikari.* explicitly, since @ConfigurationProperties cannot bind onto a null bean
+    @Bean
+    public HikariDataSource replicaDataSource(
+            Environment environment,
+            DataSourceProperties properties,
+            ConnectionPoolMetrics poolMetrics,
+            @Value("${lms.datasource.replica.url:}") String replicaUrl,
+            @Value("${lms.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${lms.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword) {
+        if (replicaUrl.isBlank()) {
+            return null;
+        }
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(poolMetrics);
+        Binder.get(environment).bind("lms.datasource.replica.hikari", Bindable.ofInstance(replica));
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaProvider,
+            ReadYourWritesTracker readYourWritesTracker,
+            SlowQueryLog slowQueryLog) {
+        DataSource replica = replicaProvider.getIfAvailable();
+        if (replica == null) {
+            return new SlowQueryLoggingDataSource(primary, slowQueryLog);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readYourWritesTracker);
+        routing.setTargetDataSources(Map.of(
+            ReadWriteRoutingDataSource.Target.PRIMARY, primary,
+            ReadWriteRoutingDataSource.Target.REPLICA, replica
+        ));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // Defers the physical connection until the first statement, when the transaction's read-only flag is known
+        return new SlowQueryLoggingDataSource(new LazyConnectionDataSourceProxy(routing), slowQueryLog);
+    }
+}
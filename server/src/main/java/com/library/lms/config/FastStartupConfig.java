@@ -0,0 +1,36 @@
+package com.library.lms.config;
+
+import com.library.lms.controller.BookController;
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Configuration
+public class FastStartupConfig {
+
+    // With spring.main.lazy-initialization these beans are still created up front: filters and the catalog
+    // endpoint so the first request is not slow, and scheduled jobs because lazy beans are never scheduled
+    @Bean
+    public static LazyInitializationExcludeFilter eagerCriticalBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && (
+                Filter.class.isAssignableFrom(beanType)
+                        || SecurityFilterChain.class.isAssignableFrom(beanType)
+                        || BookController.class.isAssignableFrom(beanType)
+                        || hasScheduledMethods(beanType));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> found.set(true),
+                method -> !found.get() && AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+        return found.get();
+    }
+}
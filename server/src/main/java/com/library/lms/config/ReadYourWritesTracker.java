@@ -0,0 +1,41 @@
+package com.library.lms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Remembers users who just wrote, so their reads stay on the primary until the replica has caught up
+@Component
+public class ReadYourWritesTracker {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final ConcurrentHashMap<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(@Value("${lms.datasource.replica.read-your-writes-ms:5000}") long windowMs) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+
+    public void markWrite(Long userId) {
+        long now = System.nanoTime();
+        pinnedUntil.put(userId, now + windowNanos);
+        if (pinnedUntil.size() > PRUNE_THRESHOLD) {
+            pinnedUntil.values().removeIf(deadline -> deadline - now < 0);
+        }
+    }
+
+    public boolean isPinnedToPrimary(Long userId) {
+        Long deadline = pinnedUntil.get(userId);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() < 0) {
+            pinnedUntil.remove(userId, deadline);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.lms.config;
+
+import com.library.lms.service.FileReminderSender;
+import com.library.lms.service.ReminderSender;
+import com.library.lms.service.SmtpReminderSender;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+@Configuration
+public class ReminderSenderConfig {
+
+    // Chosen at runtime rather than with @ConditionalOnProperty, which process-aot would freeze at build time
+    @Bean
+    public ReminderSender reminderSender(
+            @Value("${lms.reminders.sender:file}") String sender,
+            @Value("${lms.reminders.outbox-dir:reminders-outbox}") String outboxDir,
+            @Value("${lms.reminders.from:library@localhost}") String from,
+            ObjectProvider<JavaMailSender> mailSender) {
+        return switch (sender) {
+            case "file" -> new FileReminderSender(outboxDir);
+            case "smtp" -> {
+                JavaMailSender mail = mailSender.getIfAvailable();
+                if (mail == null) {
+                    throw new IllegalStateException("lms.reminders.sender=smtp needs spring.mail.host");
+                }
+                yield new SmtpReminderSender(mail, from);
+            }
+            default -> throw new IllegalStateException("Unknown lms.reminders.sender: " + sender);
+        };
+    }
+}
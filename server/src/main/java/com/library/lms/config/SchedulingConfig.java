@@ -0,0 +1,21 @@
+package com.library.lms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Several threads so long batch jobs do not hold up cluster event polling or bucket eviction
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${lms.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("lms-scheduling-");
+        return scheduler;
+    }
+}
@@ -1,6 +1,8 @@
 package com.library.lms.config;
 
+import com.library.lms.security.BranchResolutionFilter;
 import com.library.lms.security.JwtAuthenticationFilter;
+import com.library.lms.security.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +27,8 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final BranchResolutionFilter branchResolutionFilter;
     private final AuthenticationProvider authenticationProvider;
 
     @Bean
@@ -40,7 +44,9 @@ public class SecurityConfig {
                 "/api/auth/**",
                 "/api/auth/login",
                 "/api/auth/register",
-                "/h2-console/**"
+                "/h2-console/**",
+                // Error dispatches carry the status of the original request, such as a 503 from the hashing pool
+                "/error"
             )
             .permitAll()
             .requestMatchers(HttpMethod.GET, "/api/books", "/api/books/search")
@@ -53,7 +59,7 @@ public class SecurityConfig {
             .hasRole("ADMIN")
             .requestMatchers("/api/admin/**")
             .hasRole("ADMIN")
-            .requestMatchers("/api/borrowings/my", "/api/books/{id}/borrow")
+            .requestMatchers("/api/borrowings/my", "/api/borrowings/my/fines", "/api/books/{id}/borrow")
             .authenticated()
             .requestMatchers("/api/borrowings/**")
             .hasRole("ADMIN")
@@ -65,6 +71,8 @@ public class SecurityConfig {
             .and()
             .authenticationProvider(authenticationProvider)
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+            .addFilterAfter(branchResolutionFilter, RateLimitFilter.class)
             .headers()
             .frameOptions()
             .disable();
@@ -84,9 +92,11 @@ public class SecurityConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "If-None-Match",
+            "X-Branch-Id"
         ));
-        configuration.setExposedHeaders(Arrays.asList("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "Authorization", "Retry-After", "ETag", "X-Request-Id", "X-Outstanding-Fine-Cents"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
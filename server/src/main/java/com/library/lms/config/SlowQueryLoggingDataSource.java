@@ -0,0 +1,109 @@
+package com.library.lms.config;
+
+import com.library.lms.service.SlowQueryLog;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+// Times each JDBC execute* call and hands the ones over the threshold to SlowQueryLog. Only execute* is
+// intercepted: binds, fetches and result sets go straight to the driver, so a fast statement costs one
+// proxy hop and two clock reads. The time covers execution, not fetching the rows afterwards.
+public class SlowQueryLoggingDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryLoggingDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                Object result = invoke(proxy, connection, method, args);
+                String name = method.getName();
+                if (result instanceof Statement statement
+                        && (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement"))) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                    return wrapStatement(statement, sql);
+                }
+                return result;
+            });
+    }
+
+    private Statement wrapStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+            Statement.class.getClassLoader(),
+            new Class<?>[]{type},
+            (proxy, method, args) -> {
+                if (!method.getName().startsWith("execute")) {
+                    return invoke(proxy, statement, method, args);
+                }
+                long start = System.nanoTime();
+                Object result = invoke(proxy, statement, method, args);
+                long elapsed = System.nanoTime() - start;
+                if (slowQueryLog.isSlow(elapsed)) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    // The driver renders its own bound parameters; asked only for slow statements, and only
+                    // when bind values are not redacted
+                    slowQueryLog.record(elapsed, sql, statement::toString, rowCount(result));
+                }
+                return result;
+            });
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            return Arrays.stream(counts).sum();
+        }
+        if (result instanceof long[] counts) {
+            return Arrays.stream(counts).sum();
+        }
+        return -1;
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Identity of the proxy itself, so pools and transaction holders can compare it with itself
+        if (method.getName().equals("equals") && args != null && args.length == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && args == null) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
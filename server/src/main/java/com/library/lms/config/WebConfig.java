@@ -0,0 +1,53 @@
+package com.library.lms.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerTrackingInterceptor());
+    }
+
+    // Served when the client sends Accept: application/cbor; uses the same Jackson modules as JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // server.compression.* wins wherever it is set; the lms.compression.* values only fill in what it leaves out
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> responseCompressionCustomizer(
+            ServerProperties serverProperties,
+            Environment environment,
+            @Value("${lms.compression.enabled:true}") boolean enabled,
+            @Value("${lms.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        return factory -> {
+            Compression compression = serverProperties.getCompression();
+            if (!environment.containsProperty("server.compression.enabled")) {
+                compression.setEnabled(enabled);
+            }
+            if (!environment.containsProperty("server.compression.mime-types")) {
+                compression.setMimeTypes(new String[]{"application/json", "text/plain"});
+            }
+            if (!environment.containsProperty("server.compression.min-response-size")) {
+                compression.setMinResponseSize(minResponseSize);
+            }
+            factory.setCompression(compression);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.library.lms.controller;
+
+import com.library.lms.dto.AuditRecordDTO;
+import com.library.lms.model.AuditAction;
+import com.library.lms.service.AuditLogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/audit")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AuditController {
+    private static final int MAX_LIMIT = 1000;
+
+    private final AuditLogService auditLogService;
+
+    // Answers from this node's audit files only
+    @GetMapping
+    public ResponseEntity<List<AuditRecordDTO>> queryAuditLog(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) AuditAction action,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditLogService.query(from, to, entityId, action, Math.min(limit, MAX_LIMIT)));
+    }
+}
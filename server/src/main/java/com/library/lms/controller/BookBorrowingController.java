@@ -1,15 +1,20 @@
 package com.library.lms.controller;
 
+import com.library.lms.dto.FineBalanceDTO;
+import com.library.lms.dto.PageResponse;
 import com.library.lms.model.BookBorrowing;
 import com.library.lms.service.BookBorrowingService;
+import com.library.lms.service.FineService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import com.library.lms.model.User;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,6 +22,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookBorrowingController {
     private final BookBorrowingService borrowingService;
+    private final FineService fineService;
 
     @PostMapping("/borrow/{bookId}")
     public ResponseEntity<BookBorrowing> borrowBook(
@@ -32,18 +38,39 @@ public class BookBorrowingController {
     }
 
     @GetMapping("/my")
-    public ResponseEntity<Page<BookBorrowing>> getMyBorrowings(
+    public ResponseEntity<PageResponse<BookBorrowing>> getMyBorrowings(
             @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+            @RequestParam(required = false) Long beforeId,
             Pageable pageable) {
-        return ResponseEntity.ok(borrowingService.getUserBorrowings(user.getId(), pageable));
+        // The principal is loaded fresh for each request, so the balance costs no extra query
+        return ResponseEntity.ok()
+                .header("X-Outstanding-Fine-Cents", String.valueOf(user.getOutstandingFineCents()))
+                .body(PageResponse.of(borrowings(user.getId(), includeArchived, beforeDate, beforeId, pageable)));
+    }
+
+    @GetMapping("/my/fines")
+    public ResponseEntity<FineBalanceDTO> getMyFines(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(fineService.getBalance(user));
+    }
+
+    @PostMapping("/user/{userId}/fines/payments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> recordFinePayment(@PathVariable Long userId, @RequestParam long amountCents) {
+        fineService.recordPayment(userId, amountCents);
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<BookBorrowing>> getUserBorrowings(
+    public ResponseEntity<PageResponse<BookBorrowing>> getUserBorrowings(
             @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+            @RequestParam(required = false) Long beforeId,
             Pageable pageable) {
-        return ResponseEntity.ok(borrowingService.getUserBorrowings(userId, pageable));
+        return ResponseEntity.ok(PageResponse.of(borrowings(userId, includeArchived, beforeDate, beforeId, pageable)));
     }
 
     @GetMapping("/book/{bookId}")
@@ -58,4 +85,11 @@ public class BookBorrowingController {
         borrowingService.checkOverdueBorrowings();
         return ResponseEntity.ok().build();
     }
-} 
\ No newline at end of file
+
+    private Page<BookBorrowing> borrowings(Long userId, boolean includeArchived, LocalDateTime beforeDate, Long beforeId,
+                                           Pageable pageable) {
+        return includeArchived
+                ? borrowingService.getBorrowingHistory(userId, beforeDate, beforeId, pageable)
+                : borrowingService.getUserBorrowings(userId, pageable);
+    }
+}
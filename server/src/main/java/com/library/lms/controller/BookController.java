@@ -1,20 +1,34 @@
 package com.library.lms.controller;
 
 import com.library.lms.dto.BookSearchDTO;
+import com.library.lms.dto.PageResponse;
 import com.library.lms.model.Book;
 import com.library.lms.model.BookBorrowing;
+import com.library.lms.repository.BookSpecification;
 import com.library.lms.service.BookBorrowingService;
+import com.library.lms.service.BookPageStreamer;
 import com.library.lms.service.BookService;
+import com.library.lms.service.BranchSearchService;
+import com.library.lms.service.CatalogVersionService;
+import com.library.lms.service.RecommendationService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import com.library.lms.model.User;
 import org.springframework.data.web.PageableDefault;
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/books")
@@ -22,12 +36,29 @@ import org.springframework.data.web.PageableDefault;
 public class BookController {
     private final BookService bookService;
     private final BookBorrowingService borrowingService;
+    private final RecommendationService recommendationService;
+    private final CatalogVersionService catalogVersionService;
+    private final BranchSearchService branchSearchService;
+    private final BookPageStreamer bookPageStreamer;
 
     @GetMapping("/search")
-    public ResponseEntity<Page<Book>> searchBooks(
+    public ResponseEntity<?> searchBooks(
             @ModelAttribute BookSearchDTO searchDTO,
-            @PageableDefault(size = 10, sort = "title") Pageable pageable) {
-        return ResponseEntity.ok(bookService.searchBooks(searchDTO, pageable));
+            @PageableDefault(size = 10, sort = "title") Pageable pageable,
+            WebRequest request,
+            HttpServletResponse response) throws IOException {
+        String etag = catalogVersionService.catalogETag(representation(request));
+        if (notModified(request, etag)) {
+            return null;
+        }
+        boolean allBranches = Boolean.TRUE.equals(searchDTO.getAllBranches());
+        if (!allBranches && shouldStream(pageable, request)) {
+            return streamed(etag, BookSpecification.searchBooks(searchDTO), pageable, response);
+        }
+        Page<Book> books = allBranches
+                ? branchSearchService.searchAllBranches(searchDTO, pageable)
+                : bookService.searchBooks(searchDTO, pageable);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).body(PageResponse.of(books));
     }
 
     @PostMapping
@@ -50,13 +81,32 @@ public class BookController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBook(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBook(id));
+    public ResponseEntity<Book> getBook(@PathVariable Long id, WebRequest request) {
+        String etag = catalogVersionService.bookETag(id, representation(request));
+        if (notModified(request, etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).body(bookService.getBook(id));
+    }
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<Book>> getRelatedBooks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(recommendationService.getRelatedBooks(id, limit));
     }
 
     @GetMapping
-    public ResponseEntity<Page<Book>> getAllBooks(Pageable pageable) {
-        return ResponseEntity.ok(bookService.getAllBooks(pageable));
+    public ResponseEntity<?> getAllBooks(Pageable pageable, WebRequest request, HttpServletResponse response)
+            throws IOException {
+        String etag = catalogVersionService.catalogETag(representation(request));
+        if (notModified(request, etag)) {
+            return null;
+        }
+        if (shouldStream(pageable, request)) {
+            return streamed(etag, null, pageable, response);
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).body(PageResponse.of(bookService.getAllBooks(pageable)));
     }
 
     @PostMapping("/{id}/borrow")
@@ -65,4 +115,43 @@ public class BookController {
             @AuthenticationPrincipal User user) {
         return ResponseEntity.ok(borrowingService.borrowBook(user.getId(), bookId));
     }
+
+    // Large JSON pages are streamed; CBOR clients keep the buffered path
+    private boolean shouldStream(Pageable pageable, WebRequest request) {
+        return bookPageStreamer.shouldStream(pageable) && !acceptsCbor(request);
+    }
+
+    private static String representation(WebRequest request) {
+        return acceptsCbor(request) ? "cbor" : "json";
+    }
+
+    private static boolean acceptsCbor(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+    }
+
+    // A 304 stands in for the 200 it revalidates, so it has to carry the same Vary
+    private static boolean notModified(WebRequest request, String etag) {
+        if (!request.checkNotModified(etag)) {
+            return false;
+        }
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        }
+        return true;
+    }
+
+    // Callers answer If-None-Match first, so a 304 never counts or opens the page query. The page is written here,
+    // with the headers committed only once its first row has been read, so null tells Spring the response is done
+    private ResponseEntity<?> streamed(String etag, Specification<Book> spec, Pageable pageable,
+                                       HttpServletResponse response) throws IOException {
+        bookPageStreamer.writePage(spec, pageable, () -> {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            return response.getOutputStream();
+        });
+        return null;
+    }
 } 
\ No newline at end of file
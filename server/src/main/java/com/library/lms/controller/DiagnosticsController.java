@@ -0,0 +1,75 @@
+package com.library.lms.controller;
+
+import com.library.lms.dto.DiagnosticsSummary;
+import com.library.lms.dto.JfrRecordingInfo;
+import com.library.lms.service.JfrDiagnosticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class DiagnosticsController {
+    private final JfrDiagnosticsService diagnosticsService;
+
+    @PostMapping("/recordings")
+    public ResponseEntity<JfrRecordingInfo> startRecording(
+            @RequestParam(defaultValue = "profile") String profile,
+            @RequestParam(defaultValue = "60") int durationSeconds) {
+        return ResponseEntity.ok(diagnosticsService.startRecording(profile, durationSeconds));
+    }
+
+    @GetMapping("/recordings")
+    public ResponseEntity<List<JfrRecordingInfo>> listRecordings() {
+        return ResponseEntity.ok(diagnosticsService.listRecordings());
+    }
+
+    @PostMapping("/recordings/{id}/stop")
+    public ResponseEntity<JfrRecordingInfo> stopRecording(@PathVariable long id) {
+        return ResponseEntity.ok(diagnosticsService.stopRecording(id));
+    }
+
+    @GetMapping("/recordings/{id}/file")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable long id) {
+        Path file = diagnosticsService.getRecordingFile(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/recordings/{id}")
+    public ResponseEntity<Void> deleteRecording(@PathVariable long id) {
+        diagnosticsService.deleteRecording(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/live")
+    public ResponseEntity<Void> startLiveSummary(@RequestParam(defaultValue = "60") int durationSeconds) {
+        diagnosticsService.startLiveSummary(durationSeconds);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/live")
+    public ResponseEntity<Void> stopLiveSummary() {
+        diagnosticsService.stopLiveSummary();
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<DiagnosticsSummary> getSummary() {
+        return ResponseEntity.ok(diagnosticsService.getSummary());
+    }
+}
@@ -0,0 +1,29 @@
+package com.library.lms.controller;
+
+import com.library.lms.dto.SlowQueryEntry;
+import com.library.lms.service.SlowQueryLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/slow-queries")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class SlowQueryController {
+    private final SlowQueryLog slowQueryLog;
+
+    @GetMapping
+    public ResponseEntity<List<SlowQueryEntry>> getSlowQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowQueryLog.getSlowest(limit));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.lms.dto;
+
+import com.library.lms.model.AuditAction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRecordDTO {
+    private Instant timestamp;
+    private AuditAction action;
+    private Long entityId; // book id, or borrowing id for borrow and return
+    private Long relatedId; // book id for borrow and return
+    private Long actorId;
+    private String branchId;
+    private String detail;
+}
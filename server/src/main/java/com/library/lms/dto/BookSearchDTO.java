@@ -11,4 +11,5 @@ public class BookSearchDTO {
     private Integer yearFrom;
     private Integer yearTo;
     private Boolean available; // true to show only books with available copies
+    private Boolean allBranches; // true to search every branch instead of the current one
 } 
\ No newline at end of file
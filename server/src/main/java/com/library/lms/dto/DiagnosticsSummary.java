@@ -0,0 +1,56 @@
+package com.library.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiagnosticsSummary {
+    private Instant windowStart;
+    private Instant windowEnd;
+    private boolean live;
+    private List<Site> allocationSites;
+    private List<Site> contendedLocks;
+    private GcStats garbageCollection;
+    private List<PoolWaitStats> connectionPools;
+
+    // weight is sampled bytes for allocation sites and blocked milliseconds for locks
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Site {
+        private String site;
+        private long events;
+        private long weight;
+        private long maxMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GcStats {
+        private long collections;
+        private double totalPauseMs;
+        private double maxPauseMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PoolWaitStats {
+        private String pool;
+        private long acquisitions;
+        private long timeouts;
+        private double averageWaitMs;
+        private double p99WaitMs;
+        private double maxWaitMs;
+        private int activeConnections;
+        private int idleConnections;
+        private int pendingThreads;
+    }
+}
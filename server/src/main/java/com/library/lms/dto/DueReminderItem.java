@@ -0,0 +1,19 @@
+package com.library.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DueReminderItem {
+    private Long borrowingId;
+    private Long userId;
+    private String username;
+    private String email;
+    private String bookTitle;
+    private LocalDateTime dueDate;
+}
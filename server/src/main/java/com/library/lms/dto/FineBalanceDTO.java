@@ -0,0 +1,14 @@
+package com.library.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FineBalanceDTO {
+    private long outstandingFineCents;
+    private long borrowLimitCents;
+    private boolean borrowingBlocked;
+}
@@ -0,0 +1,20 @@
+package com.library.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrRecordingInfo {
+    private long id;
+    private String name;
+    private String profile;
+    private String state;
+    private Instant startTime;
+    private long durationSeconds;
+    private long sizeBytes;
+}
@@ -0,0 +1,18 @@
+package com.library.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Every loan of one user that is coming due, sent as a single message
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderDigest {
+    private Long userId;
+    private String username;
+    private String email;
+    private List<DueReminderItem> items;
+}
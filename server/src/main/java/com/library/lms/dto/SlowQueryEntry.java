@@ -0,0 +1,20 @@
+package com.library.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryEntry {
+    private Instant executedAt;
+    private long durationMs;
+    private String sql;
+    private String bindValues;
+    private long rowCount; // -1 for queries, whose rows are fetched after the timed execute
+    private String requestId;
+    private String handler;
+}
@@ -0,0 +1,10 @@
+package com.library.lms.model;
+
+// Stored by ordinal in audit segments, so only ever append new values
+public enum AuditAction {
+    BOOK_ADDED,
+    BOOK_UPDATED,
+    BOOK_DELETED,
+    BOOK_BORROWED,
+    BOOK_RETURNED
+}
@@ -1,22 +1,33 @@
 package com.library.lms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    @Index(name = "idx_books_branch_title", columnList = "branch_id, title"),
+    @Index(name = "idx_books_branch_author", columnList = "branch_id, author"),
+    @Index(name = "idx_books_branch_year", columnList = "branch_id, publication_year"),
+    @Index(name = "idx_books_branch_available", columnList = "branch_id, available_copies")
+})
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @TenantId
+    @Column(name = "branch_id", updatable = false)
+    private String branchId;
+
     @NotBlank
     private String title;
 
@@ -34,6 +45,8 @@ public class Book {
     @NotNull
     private Integer availableCopies;
 
+    // Never serialized: it would lazily load every loan of the book into each response
+    @JsonIgnore
     @OneToMany(mappedBy = "book")
     private Set<BookBorrowing> borrowings = new HashSet<>();
 
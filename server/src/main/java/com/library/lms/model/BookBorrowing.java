@@ -1,17 +1,28 @@
 package com.library.lms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "book_borrowing")
+@Table(name = "book_borrowing", indexes = {
+    @Index(name = "idx_borrowing_status_return", columnList = "status, return_date"),
+    @Index(name = "idx_borrowing_branch_user", columnList = "branch_id, user_id"),
+    @Index(name = "idx_borrowing_user_borrowed", columnList = "user_id, borrow_date, id"),
+    @Index(name = "idx_borrowing_open_user", columnList = "return_date, user_id, id"),
+    @Index(name = "idx_borrowing_open_due", columnList = "return_date, due_date, user_id, id"),
+    @Index(name = "idx_borrowing_accrual_run", columnList = "fine_accrual_run, user_id")
+})
 public class BookBorrowing {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +36,11 @@ public class BookBorrowing {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
+    // Null for borrowings made before physical copies were tracked
+    @ManyToOne
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
     @Column(nullable = false)
     private LocalDateTime borrowDate;
 
@@ -33,7 +49,28 @@ public class BookBorrowing {
 
     private LocalDateTime returnDate;
 
+    // Fine accrued so far and the day it was last brought up to date
+    @Column(name = "fine_cents", nullable = false)
+    @ColumnDefault("0")
+    private Long fineCents = 0L;
+
+    @Column(name = "fine_accrued_on")
+    private LocalDate fineAccruedOn;
+
+    // Set by the overdue sweep so the users update can sum exactly the deltas it just applied
+    @JsonIgnore
+    @Column(name = "fine_accrual_run")
+    private Long fineAccrualRun;
+
+    @JsonIgnore
+    @Column(name = "fine_last_accrual_cents")
+    private Long fineLastAccrualCents;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BorrowingStatus status;
+
+    @TenantId
+    @Column(name = "branch_id", updatable = false)
+    private String branchId;
 } 
\ No newline at end of file
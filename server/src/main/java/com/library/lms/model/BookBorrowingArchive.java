@@ -0,0 +1,66 @@
+package com.library.lms.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "book_borrowing_archive", indexes = {
+    @Index(name = "idx_borrowing_archive_user", columnList = "user_id, borrow_date, id"),
+    @Index(name = "idx_borrowing_archive_branch_user", columnList = "branch_id, user_id")
+})
+public class BookBorrowingArchive {
+    // Keeps the id the row had in book_borrowing
+    @Id
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @ManyToOne
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
+    @Column(nullable = false)
+    private LocalDateTime borrowDate;
+
+    @Column(nullable = false)
+    private LocalDateTime dueDate;
+
+    private LocalDateTime returnDate;
+
+    @Column(name = "fine_cents", nullable = false)
+    @ColumnDefault("0")
+    private Long fineCents = 0L;
+
+    @Column(name = "fine_accrued_on")
+    private LocalDate fineAccruedOn;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BorrowingStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @TenantId
+    @Column(name = "branch_id", updatable = false)
+    private String branchId;
+
+    public BookBorrowing toBorrowing() {
+        return new BookBorrowing(id, user, book, copy, borrowDate, dueDate, returnDate, fineCents, fineAccruedOn,
+                null, null, status, branchId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.lms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.TenantId;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "book_copy", indexes = {
+    @Index(name = "idx_book_copy_book", columnList = "book_id, available")
+})
+public class BookCopy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @NotBlank
+    @Column(nullable = false, unique = true)
+    private String barcode;
+
+    // false while the copy is out on loan
+    @Column(nullable = false)
+    private boolean available;
+
+    // Copies taken out of circulation are kept so old borrowings still reference them
+    @Column(nullable = false)
+    private boolean withdrawn;
+
+    @TenantId
+    @Column(name = "branch_id", updatable = false)
+    private String branchId;
+}
@@ -0,0 +1,31 @@
+package com.library.lms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "cluster_event", indexes = {
+    @Index(name = "idx_cluster_event_created", columnList = "created_at"),
+    @Index(name = "idx_cluster_event_type", columnList = "type, id")
+})
+public class ClusterEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    private String payload;
+
+    @Column(nullable = false)
+    private String origin;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
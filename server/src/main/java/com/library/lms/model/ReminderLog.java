@@ -0,0 +1,34 @@
+package com.library.lms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per loan and due date a reminder went out for; a renewed loan gets a fresh reminder
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reminder_log", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_reminder_borrowing_due", columnNames = {"borrowing_id", "due_date"})
+})
+public class ReminderLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "borrowing_id", nullable = false)
+    private Long borrowingId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDateTime dueDate;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+}
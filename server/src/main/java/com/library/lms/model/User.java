@@ -1,6 +1,8 @@
 package com.library.lms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -42,6 +44,17 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
 
+    // Home branch used when a request does not name one
+    private String branchId;
+
+    // Running total of unpaid fines, kept up to date by the overdue sweep, returns and payments
+    @JsonIgnore
+    @Builder.Default
+    @Column(name = "outstanding_fine_cents", nullable = false)
+    @ColumnDefault("0")
+    private Long outstandingFineCents = 0L;
+
+    @JsonIgnore
     @OneToMany(mappedBy = "user")
     private Set<BookBorrowing> borrowings = new HashSet<>();
 
@@ -0,0 +1,51 @@
+package com.library.lms.repository;
+
+import com.library.lms.model.BookBorrowingArchive;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface BookBorrowingArchiveRepository extends JpaRepository<BookBorrowingArchive, Long> {
+    Page<BookBorrowingArchive> findByUserId(Long userId, Pageable pageable);
+    long countByUserId(Long userId);
+
+    // Newest first; the pageable only supplies the limit
+    List<BookBorrowingArchive> findByUserIdOrderByBorrowDateDescIdDesc(Long userId, Pageable pageable);
+
+    // Rows strictly after (beforeDate, beforeId) in newest-first order
+    @Query("SELECT b FROM BookBorrowingArchive b WHERE b.user.id = :userId " +
+           "AND (b.borrowDate < :beforeDate OR (b.borrowDate = :beforeDate AND b.id < :beforeId)) " +
+           "ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BookBorrowingArchive> findHistoryBefore(
+        @Param("userId") Long userId,
+        @Param("beforeDate") LocalDateTime beforeDate,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable);
+
+    // Unordered and possibly repeated; the recommendation rebuild sorts and de-duplicates in memory
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.user.id, b.book.id FROM BookBorrowingArchive b")
+    Stream<Object[]> streamUserBookPairs();
+
+    @Modifying
+    @Query(value = "INSERT INTO book_borrowing_archive " +
+                   "(id, user_id, book_id, copy_id, borrow_date, due_date, return_date, fine_cents, fine_accrued_on, " +
+                   "status, branch_id, archived_at) " +
+                   "SELECT id, user_id, book_id, copy_id, borrow_date, due_date, return_date, fine_cents, fine_accrued_on, " +
+                   "status, branch_id, :archivedAt " +
+                   "FROM book_borrowing WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copyFromActive(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
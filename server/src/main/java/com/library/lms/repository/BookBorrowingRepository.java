@@ -1,18 +1,110 @@
 package com.library.lms.repository;
 
+import com.library.lms.dto.DueReminderItem;
 import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BorrowingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookBorrowingRepository extends JpaRepository<BookBorrowing, Long> {
+    // Open overdue loans whose fine is below the cap and not yet accrued for :today
+    String FINE_ACCRUABLE =
+        "b.return_date IS NULL AND b.status = 'OVERDUE' AND b.fine_cents < :cap " +
+        "AND COALESCE(b.fine_accrued_on, CAST(b.due_date AS DATE)) < :today";
+
+    // Days since the last accrual (or the due date) times the daily rate, capped per loan
+    String FINE_DELTA =
+        "LEAST(:cap - b.fine_cents, :dailyRate * " +
+        "DATEDIFF('DAY', COALESCE(b.fine_accrued_on, CAST(b.due_date AS DATE)), :today))";
+
     boolean existsByUserIdAndBookIdAndReturnDateIsNull(Long userId, Long bookId);
     Page<BookBorrowing> findByUserId(Long userId, Pageable pageable);
+    long countByUserId(Long userId);
+
+    // Newest first; the pageable only supplies the limit
+    List<BookBorrowing> findByUserIdOrderByBorrowDateDescIdDesc(Long userId, Pageable pageable);
+
+    // Rows strictly after (beforeDate, beforeId) in newest-first order
+    @Query("SELECT b FROM BookBorrowing b WHERE b.user.id = :userId " +
+           "AND (b.borrowDate < :beforeDate OR (b.borrowDate = :beforeDate AND b.id < :beforeId)) " +
+           "ORDER BY b.borrowDate DESC, b.id DESC")
+    List<BookBorrowing> findHistoryBefore(
+        @Param("userId") Long userId,
+        @Param("beforeDate") LocalDateTime beforeDate,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable);
     List<BookBorrowing> findByReturnDateIsNullAndDueDateBefore(LocalDateTime dueDate);
     List<BookBorrowing> findByBookId(Long bookId);
-} 
\ No newline at end of file
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BookBorrowing b WHERE b.id = :id")
+    Optional<BookBorrowing> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE BookBorrowing b SET b.status = :overdue " +
+           "WHERE b.returnDate IS NULL AND b.dueDate < :now AND b.status <> :overdue")
+    int markOverdue(@Param("overdue") BorrowingStatus overdue, @Param("now") LocalDateTime now);
+
+    // Row locks taken here are held until commit, so returnBook cannot settle one of these loans mid-sweep
+    @Modifying
+    @Query(value = "UPDATE book_borrowing b SET fine_cents = b.fine_cents + " + FINE_DELTA + ", " +
+                   "fine_last_accrual_cents = " + FINE_DELTA + ", " +
+                   "fine_accrued_on = :today, fine_accrual_run = :run " +
+                   "WHERE " + FINE_ACCRUABLE,
+           nativeQuery = true)
+    int accrueFines(
+        @Param("today") LocalDate today,
+        @Param("dailyRate") long dailyRate,
+        @Param("cap") long cap,
+        @Param("run") long run
+    );
+
+    @Query("SELECT b.id FROM BookBorrowing b WHERE b.status = :status AND b.returnDate < :returnedBefore ORDER BY b.id")
+    List<Long> findIdsByStatusAndReturnDateBefore(
+        @Param("status") BorrowingStatus status,
+        @Param("returnedBefore") LocalDateTime returnedBefore,
+        Pageable pageable
+    );
+
+    // Unordered and possibly repeated; the recommendation rebuild sorts and de-duplicates in memory
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.user.id, b.book.id FROM BookBorrowing b")
+    Stream<Object[]> streamUserBookPairs();
+
+    // Users with an open loan due in [from, to): a range scan of idx_borrowing_open_due that never reads a row
+    @Query("SELECT DISTINCT b.user.id FROM BookBorrowing b " +
+           "WHERE b.returnDate IS NULL AND b.dueDate >= :from AND b.dueDate < :to " +
+           "ORDER BY b.user.id")
+    List<Long> findUserIdsWithLoansDueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Every unreminded loan in [from, to) for a batch of users, grouped by user; idx_borrowing_open_user seeks
+    // straight to each user's open loans
+    @Query("SELECT new com.library.lms.dto.DueReminderItem(b.id, u.id, u.username, u.email, bk.title, b.dueDate) " +
+           "FROM BookBorrowing b JOIN b.user u JOIN b.book bk " +
+           "WHERE b.returnDate IS NULL AND b.user.id IN :userIds " +
+           "AND b.dueDate >= :from AND b.dueDate < :to " +
+           "AND NOT EXISTS (SELECT 1 FROM ReminderLog r WHERE r.borrowingId = b.id AND r.dueDate = b.dueDate) " +
+           "ORDER BY b.user.id, b.id")
+    List<DueReminderItem> findDueReminderItems(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("userIds") List<Long> userIds
+    );
+}
@@ -0,0 +1,47 @@
+package com.library.lms.repository;
+
+import com.library.lms.model.Book;
+import com.library.lms.model.BookCopy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+    long countByBookId(Long bookId);
+
+    @Query("SELECT COUNT(c) FROM BookCopy c WHERE c.book.id = :bookId AND c.available = true AND c.withdrawn = false")
+    long countAvailableByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT c.id, c.available FROM BookCopy c WHERE c.book.id = :bookId AND c.withdrawn = false ORDER BY c.id")
+    List<Object[]> findStatesByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT c FROM BookCopy c WHERE c.book.id = :bookId AND c.available = true AND c.withdrawn = false ORDER BY c.id DESC")
+    List<BookCopy> findAvailableByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    // Copies marked out on loan by the backfill for borrowings made before copies were tracked
+    @Query("SELECT c FROM BookCopy c WHERE c.book.id = :bookId AND c.available = false AND c.withdrawn = false " +
+           "AND NOT EXISTS (SELECT b.id FROM BookBorrowing b WHERE b.copy = c AND b.returnDate IS NULL) ORDER BY c.id")
+    List<BookCopy> findUnassignedBorrowedByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.id > :afterId AND b.totalCopies > 0 " +
+           "AND NOT EXISTS (SELECT c.id FROM BookCopy c WHERE c.book = b) ORDER BY b.id")
+    List<Book> findBooksWithoutCopies(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE BookCopy c SET c.available = :available WHERE c.id = :id AND c.available = :expected AND c.withdrawn = false")
+    int compareAndSetAvailable(
+        @Param("id") Long id,
+        @Param("expected") boolean expected,
+        @Param("available") boolean available
+    );
+
+    @Modifying
+    @Query("DELETE FROM BookCopy c WHERE c.book.id = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,27 @@
+package com.library.lms.repository;
+
+import com.library.lms.model.ClusterEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClusterEventRepository extends JpaRepository<ClusterEvent, Long> {
+    List<ClusterEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    Optional<ClusterEvent> findTopByTypeOrderByIdDesc(String type);
+
+    @Query("SELECT MAX(e.id) FROM ClusterEvent e WHERE e.createdAt < :createdBefore")
+    Long findMaxIdCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Modifying
+    @Query("DELETE FROM ClusterEvent e WHERE e.id <= :id")
+    int deleteThrough(@Param("id") Long id);
+}
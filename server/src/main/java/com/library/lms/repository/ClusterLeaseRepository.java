@@ -0,0 +1,34 @@
+package com.library.lms.repository;
+
+import com.library.lms.model.ClusterLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClusterLeaseRepository extends JpaRepository<ClusterLease, String> {
+
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+    int acquireOrRenew(
+        @Param("name") String name,
+        @Param("owner") String owner,
+        @Param("expiresAt") LocalDateTime expiresAt,
+        @Param("now") LocalDateTime now
+    );
+
+    // Unlike acquireOrRenew, never takes the lease over: an expired lease another instance has since
+    // acquired is lost to the caller
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.expiresAt = :expiresAt WHERE l.name = :name AND l.owner = :owner")
+    int renew(
+        @Param("name") String name,
+        @Param("owner") String owner,
+        @Param("expiresAt") LocalDateTime expiresAt
+    );
+}
@@ -0,0 +1,18 @@
+package com.library.lms.repository;
+
+import com.library.lms.model.ReminderLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReminderLogRepository extends JpaRepository<ReminderLog, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ReminderLog r WHERE r.dueDate < :before")
+    int deleteByDueDateBefore(@Param("before") LocalDateTime before);
+}
@@ -2,12 +2,34 @@ package com.library.lms.repository;
 
 import com.library.lms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
+
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE User u SET u.outstandingFineCents = u.outstandingFineCents + :amount WHERE u.id = :userId")
+    int addFine(@Param("userId") Long userId, @Param("amount") long amount);
+
+    @Modifying
+    @Query("UPDATE User u SET u.outstandingFineCents = u.outstandingFineCents - :amount " +
+           "WHERE u.id = :userId AND u.outstandingFineCents >= :amount")
+    int deductFine(@Param("userId") Long userId, @Param("amount") long amount);
+
+    // Sums the deltas BookBorrowingRepository.accrueFines stamped with :run, read from the loans it already changed
+    @Modifying
+    @Query(value = "UPDATE users u SET outstanding_fine_cents = outstanding_fine_cents + " +
+                   "(SELECT COALESCE(SUM(b.fine_last_accrual_cents), 0) FROM book_borrowing b " +
+                   "WHERE b.fine_accrual_run = :run AND b.user_id = u.id) " +
+                   "WHERE u.id IN (SELECT b.user_id FROM book_borrowing b WHERE b.fine_accrual_run = :run)",
+           nativeQuery = true)
+    int addAccruedFines(@Param("run") long run);
 } 
\ No newline at end of file
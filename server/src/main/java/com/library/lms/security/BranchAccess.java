@@ -0,0 +1,52 @@
+package com.library.lms.security;
+
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Which branches a caller may work in, for the X-Branch-Id header and for searches across every branch alike
+@Component
+public class BranchAccess {
+
+    private final List<String> branchIds;
+    private final String defaultBranch;
+
+    public BranchAccess(
+            @Value("${lms.branches.ids:main}") List<String> branchIds,
+            @Value("${lms.branches.default:main}") String defaultBranch) {
+        this.branchIds = branchIds;
+        this.defaultBranch = defaultBranch;
+    }
+
+    public List<String> getBranchIds() {
+        return branchIds;
+    }
+
+    public boolean isKnown(String branchId) {
+        return branchIds.contains(branchId);
+    }
+
+    public String homeBranch(User user) {
+        return user != null && user.getBranchId() != null ? user.getBranchId() : defaultBranch;
+    }
+
+    // Admins work across branches; members only in their home branch. Anonymous callers can only
+    // reach the public catalog, so they may browse any branch.
+    public boolean mayUse(User user, String branchId) {
+        return user == null || user.getRole() == Role.ADMIN || branchId.equals(homeBranch(user));
+    }
+
+    public boolean mayUseEvery(User user) {
+        return branchIds.stream().allMatch(branchId -> mayUse(user, branchId));
+    }
+
+    public static User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user : null;
+    }
+}
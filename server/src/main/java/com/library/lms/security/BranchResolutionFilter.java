@@ -0,0 +1,63 @@
+package com.library.lms.security;
+
+import com.library.lms.config.BranchContext;
+import com.library.lms.model.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class BranchResolutionFilter extends OncePerRequestFilter {
+
+    public static final String BRANCH_HEADER = "X-Branch-Id";
+
+    // The caller's own loans and fines span every branch they borrowed from, unless the header narrows them
+    private static final String OWNER_WIDE_PATHS = "/api/borrowings/my/**";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final BranchAccess branchAccess;
+
+    public BranchResolutionFilter(BranchAccess branchAccess) {
+        this.branchAccess = branchAccess;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String header = request.getHeader(BRANCH_HEADER);
+        boolean explicit = header != null && !header.isBlank();
+        User user = BranchAccess.currentUser();
+
+        String branchId = explicit ? header.trim() : branchAccess.homeBranch(user);
+        if (!branchAccess.isKnown(branchId)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unknown branch: " + branchId);
+            return;
+        }
+        if (!branchAccess.mayUse(user, branchId)) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Branch not allowed: " + branchId);
+            return;
+        }
+        if (!explicit && user != null && pathMatcher.match(OWNER_WIDE_PATHS, request.getServletPath())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        BranchContext.set(branchId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            BranchContext.clear();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.library.lms.security;
+
+import com.library.lms.model.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record Route(String name, String method, String pattern, int capacity, long periodNanos) {
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final List<Route> routes;
+    private final boolean enabled;
+
+    public RateLimitFilter(
+            @Value("${lms.rate-limit.enabled:true}") boolean enabled,
+            @Value("${lms.rate-limit.login-per-minute:10}") int loginPerMinute,
+            @Value("${lms.rate-limit.search-per-minute:120}") int searchPerMinute,
+            @Value("${lms.rate-limit.borrow-per-minute:10}") int borrowPerMinute) {
+        this.enabled = enabled;
+        long minute = TimeUnit.MINUTES.toNanos(1);
+        this.routes = List.of(
+            new Route("login", "POST", "/api/auth/login", positive("login-per-minute", loginPerMinute), minute),
+            new Route("register", "POST", "/api/auth/register", loginPerMinute, minute),
+            new Route("search", "GET", "/api/books/search", positive("search-per-minute", searchPerMinute), minute),
+            new Route("borrow", "POST", "/api/books/*/borrow", positive("borrow-per-minute", borrowPerMinute), minute),
+            new Route("borrow", "POST", "/api/borrowings/borrow/*", borrowPerMinute, minute)
+        );
+    }
+
+    // A bucket divides its refill period by the capacity, so a zero or negative limit has to fail at startup
+    private static int positive(String property, int perMinute) {
+        if (perMinute <= 0) {
+            throw new IllegalArgumentException("lms.rate-limit." + property + " must be positive, was " + perMinute);
+        }
+        return perMinute;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        Route route = enabled ? match(request) : null;
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(
+            route.name() + '|' + clientKey(request),
+            key -> new TokenBucket(route.capacity(), route.periodNanos(), now)
+        );
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many requests\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${lms.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private Route match(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (Route route : routes) {
+            if (route.method().equals(request.getMethod()) && pathMatcher.match(route.pattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // Behind a proxy the remote address is the client's only because server.forward-headers-strategy=native lets
+    // Tomcat take it from X-Forwarded-For, and only when the request came from one of the trusted internal proxies
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
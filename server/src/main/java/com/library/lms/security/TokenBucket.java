@@ -0,0 +1,41 @@
+package com.library.lms.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket kept as a single "theoretical arrival time" (GCRA), so acquiring is one CAS
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFreeAt;
+
+    public TokenBucket(int capacity, long refillPeriodNanos, long now) {
+        if (capacity <= 0 || refillPeriodNanos < capacity) {
+            throw new IllegalArgumentException(
+                "Need a positive capacity and at least one nano of refill period per token, got "
+                    + capacity + " per " + refillPeriodNanos + " ns");
+        }
+        this.intervalNanos = refillPeriodNanos / capacity;
+        this.burstNanos = intervalNanos * capacity;
+        this.nextFreeAt = new AtomicLong(now);
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanos until one becomes available
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = nextFreeAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long waitNanos = next - now - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (nextFreeAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean isIdle(long now) {
+        return nextFreeAt.get() <= now;
+    }
+}
@@ -0,0 +1,405 @@
+package com.library.lms.service;
+
+import com.library.lms.config.BranchContext;
+import com.library.lms.dto.AuditRecordDTO;
+import com.library.lms.model.AuditAction;
+import com.library.lms.model.User;
+import com.library.lms.util.AuditSegment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+// Audit trail kept in local memory-mapped segment files instead of the database.
+// Callers only enqueue; one writer thread appends and fsyncs each drained batch together.
+// Each node writes its own files, so a node only ever sees the records of the requests it served.
+@Slf4j
+@Service
+public class AuditLogService {
+
+    private static final int MAX_DETAIL_CHARS = 256;
+    private static final int MAX_BRANCH_CHARS = 64;
+    private static final int MAX_RECORD_BYTES = 2048;
+    private static final long DROPPED_LOG_EVERY = 1000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxBatch;
+    private final boolean fsync;
+    private final Duration retention;
+
+    private final BlockingQueue<AuditRecordDTO> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    // Sealed segments oldest first; guarded by itself for changes, by filesLock against compaction during scans
+    private final List<AuditSegment> sealed = new ArrayList<>();
+    private final ReadWriteLock filesLock = new ReentrantReadWriteLock();
+    private volatile AuditSegment active;
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLogService(
+            @Value("${lms.audit.enabled:true}") boolean enabled,
+            @Value("${lms.audit.directory:audit-log}") String directory,
+            @Value("${lms.audit.segment-size-mb:16}") int segmentSizeMb,
+            @Value("${lms.audit.max-batch:1024}") int maxBatch,
+            @Value("${lms.audit.fsync:true}") boolean fsync,
+            @Value("${lms.audit.retention-days:365}") int retentionDays,
+            @Value("${lms.audit.queue-capacity:65536}") int queueCapacity) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.maxBatch = maxBatch;
+        this.fsync = fsync;
+        this.retention = Duration.ofDays(retentionDays);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            openSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open audit log in " + directory, e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // The newest file becomes the active segment again, continuing after its last intact record
+    private void openSegments() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "audit-*")) {
+            for (Path file : stream) {
+                if (file.toString().endsWith(".tmp")) {
+                    // Left over from a compaction that did not finish; the originals are still in place
+                    Files.delete(file);
+                } else {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        for (int i = 0; i < files.size() - 1; i++) {
+            sealed.add(AuditSegment.open(files.get(i), false, segmentSize));
+        }
+        active = files.isEmpty()
+                ? AuditSegment.create(directory, System.currentTimeMillis(), segmentSize)
+                : AuditSegment.open(files.get(files.size() - 1), true, segmentSize);
+    }
+
+    // Called inside the mutating transaction; the record is queued only if it commits
+    public void record(AuditAction action, Long entityId, Long relatedId, String detail) {
+        if (!enabled) {
+            return;
+        }
+        AuditRecordDTO record = new AuditRecordDTO(
+            Instant.now(), action, entityId, relatedId, currentActorId(), BranchContext.get(), detail);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(record);
+                }
+            });
+        } else {
+            enqueue(record);
+        }
+    }
+
+    // Reads this node's segments only; in a cluster, each node has to be asked for its share of the trail.
+    // Segments are pruned by their time span before any record in them is decoded
+    public List<AuditRecordDTO> query(Instant from, Instant to, Long entityId, AuditAction action, int limit) {
+        List<AuditRecordDTO> results = new ArrayList<>();
+        if (!enabled) {
+            return results;
+        }
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        filesLock.readLock().lock();
+        try {
+            List<AuditSegment> segments;
+            synchronized (sealed) {
+                segments = new ArrayList<>(sealed);
+                segments.add(active);
+            }
+            for (int i = 0; i < segments.size() && results.size() < limit; i++) {
+                AuditSegment segment = segments.get(i);
+                long end = i + 1 < segments.size() ? segments.get(i + 1).getCreatedAt() : Long.MAX_VALUE;
+                if (segment.getCreatedAt() > toMillis) {
+                    break;
+                }
+                if (end <= fromMillis) {
+                    continue;
+                }
+                segment.scan(payload -> {
+                    AuditRecordDTO record = decodeIfMatches(payload, fromMillis, toMillis, entityId, action);
+                    if (record != null) {
+                        results.add(record);
+                    }
+                    return results.size() < limit;
+                });
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read audit log", e);
+        } finally {
+            filesLock.readLock().unlock();
+        }
+        return results;
+    }
+
+    // Drops segments past retention and merges neighbouring sealed segments, trimming their unused tails
+    @Scheduled(cron = "${lms.audit.compaction-cron:0 15 * * * *}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+        filesLock.writeLock().lock();
+        try {
+            List<AuditSegment> current;
+            synchronized (sealed) {
+                current = new ArrayList<>(sealed);
+            }
+            List<AuditSegment> kept = new ArrayList<>();
+            for (int i = 0; i < current.size(); i++) {
+                long end = i + 1 < current.size() ? current.get(i + 1).getCreatedAt() : active.getCreatedAt();
+                if (end < cutoff) {
+                    Files.deleteIfExists(current.get(i).getPath());
+                } else {
+                    kept.add(current.get(i));
+                }
+            }
+
+            List<AuditSegment> compacted = new ArrayList<>();
+            List<AuditSegment> group = new ArrayList<>();
+            int groupBytes = AuditSegment.HEADER_SIZE;
+            for (AuditSegment segment : kept) {
+                int recordBytes = segment.getUsedBytes() - AuditSegment.HEADER_SIZE;
+                if (!group.isEmpty() && groupBytes + recordBytes > segmentSize) {
+                    compacted.add(merge(group));
+                    group.clear();
+                    groupBytes = AuditSegment.HEADER_SIZE;
+                }
+                group.add(segment);
+                groupBytes += recordBytes;
+            }
+            if (!group.isEmpty()) {
+                compacted.add(merge(group));
+            }
+
+            synchronized (sealed) {
+                // The writer may have sealed more segments meanwhile; they stay after the compacted ones
+                sealed.subList(0, current.size()).clear();
+                sealed.addAll(0, compacted);
+            }
+        } catch (IOException e) {
+            log.error("Audit log compaction failed", e);
+        } finally {
+            filesLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Records that never reach a segment, because the queue was full or the writer had stopped
+    public long getDroppedRecords() {
+        return dropped.get();
+    }
+
+    private void enqueue(AuditRecordDTO record) {
+        if (!running) {
+            drop(record, "the audit writer has stopped");
+            return;
+        }
+        if (!queue.offer(record)) {
+            drop(record, "the audit queue is full");
+            return;
+        }
+        // stop() may have let the writer finish between the check and the offer; if so, nothing will drain this
+        if (!running && queue.remove(record)) {
+            drop(record, "the audit writer has stopped");
+            return;
+        }
+        LockSupport.unpark(writer);
+    }
+
+    // Logged for the first drop and then every thousandth, so an overloaded writer does not also flood the log
+    private void drop(AuditRecordDTO record, String reason) {
+        long count = dropped.incrementAndGet();
+        if (count == 1 || count % DROPPED_LOG_EVERY == 0) {
+            log.warn("Dropped audit record {} because {}; {} dropped so far", record, reason, count);
+        }
+    }
+
+    private void writeLoop() {
+        ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_BYTES);
+        CRC32 crc = new CRC32();
+        while (running || !queue.isEmpty()) {
+            int written = 0;
+            AuditRecordDTO record;
+            while (written < maxBatch && (record = queue.poll()) != null) {
+                try {
+                    encode(record, scratch, crc);
+                    if (!active.append(scratch)) {
+                        rotate();
+                        scratch.rewind();
+                        active.append(scratch);
+                    }
+                    written++;
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not write audit record {}", record, e);
+                }
+            }
+            if (written > 0) {
+                // Group commit: one fsync covers every record drained in this pass
+                if (fsync) {
+                    active.force();
+                }
+            } else {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+        active.force();
+    }
+
+    private void rotate() throws IOException {
+        AuditSegment previous = active;
+        previous.seal();
+        long createdAt = Math.max(System.currentTimeMillis(), previous.getCreatedAt() + 1);
+        AuditSegment next = AuditSegment.create(directory, createdAt, segmentSize);
+        synchronized (sealed) {
+            sealed.add(previous);
+            active = next;
+        }
+    }
+
+    private AuditSegment merge(List<AuditSegment> group) throws IOException {
+        AuditSegment first = group.get(0);
+        long fileSize = Files.size(first.getPath());
+        if (group.size() == 1 && fileSize == first.getUsedBytes()) {
+            return first;
+        }
+        Path tmp = directory.resolve(first.getPath().getFileName() + ".tmp");
+        AuditSegment merged = AuditSegment.writeCompacted(tmp, group);
+        Files.move(tmp, first.getPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (int i = 1; i < group.size(); i++) {
+            Files.deleteIfExists(group.get(i).getPath());
+        }
+        return AuditSegment.sealed(first.getPath(), merged.getCreatedAt(), merged.getUsedBytes());
+    }
+
+    // Layout after [length, crc]: timestamp, action, entityId, relatedId, actorId, branch, detail
+    private void encode(AuditRecordDTO record, ByteBuffer out, CRC32 crc) {
+        out.clear();
+        out.position(AuditSegment.RECORD_PREFIX);
+        out.putLong(record.getTimestamp().toEpochMilli());
+        out.put((byte) record.getAction().ordinal());
+        out.putLong(record.getEntityId() != null ? record.getEntityId() : -1);
+        out.putLong(record.getRelatedId() != null ? record.getRelatedId() : -1);
+        out.putLong(record.getActorId() != null ? record.getActorId() : -1);
+        putString(out, record.getBranchId(), MAX_BRANCH_CHARS);
+        putString(out, record.getDetail(), MAX_DETAIL_CHARS);
+        out.flip();
+        crc.reset();
+        crc.update(out.slice(AuditSegment.RECORD_PREFIX, out.limit() - AuditSegment.RECORD_PREFIX));
+        out.putInt(0, out.limit());
+        out.putInt(4, (int) crc.getValue());
+    }
+
+    private AuditRecordDTO decodeIfMatches(ByteBuffer in, long fromMillis, long toMillis, Long entityId, AuditAction action) {
+        long timestamp = in.getLong();
+        AuditAction recordAction = AuditAction.values()[in.get()];
+        long recordEntityId = in.getLong();
+        long relatedId = in.getLong();
+        if (timestamp < fromMillis || timestamp > toMillis
+                || (action != null && recordAction != action)
+                || (entityId != null && recordEntityId != entityId && relatedId != entityId)) {
+            return null;
+        }
+        long actorId = in.getLong();
+        return new AuditRecordDTO(
+            Instant.ofEpochMilli(timestamp),
+            recordAction,
+            recordEntityId >= 0 ? recordEntityId : null,
+            relatedId >= 0 ? relatedId : null,
+            actorId >= 0 ? actorId : null,
+            getString(in),
+            getString(in)
+        );
+    }
+
+    private static void putString(ByteBuffer out, String value, int maxChars) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = (value.length() > maxChars ? value.substring(0, maxChars) : value).getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Long currentActorId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
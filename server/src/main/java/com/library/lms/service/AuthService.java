@@ -7,12 +7,14 @@ import com.library.lms.model.Role;
 import com.library.lms.model.User;
 import com.library.lms.repository.UserRepository;
 import com.library.lms.security.JwtService;
+import com.library.lms.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -21,9 +23,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
-    @Transactional
-    public AuthResponse register(RegisterRequest request) {
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username already exists");
         }
@@ -31,38 +33,41 @@ public class AuthService {
             throw new IllegalArgumentException("Email already exists");
         }
 
-        var user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(request.getPassword())
-                .role(Role.USER)
-                .build();
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(request.getPassword()))
+                .thenApply(encodedPassword -> {
+                    var user = User.builder()
+                            .username(request.getUsername())
+                            .email(request.getEmail())
+                            .password(encodedPassword)
+                            .role(Role.USER)
+                            .build();
 
-        userRepository.save(user);
-        var token = jwtService.generateToken(user);
+                    userRepository.save(user);
+                    var token = jwtService.generateToken(user);
 
-        return AuthResponse.builder()
-                .token(token)
-                .username(user.getUsername())
-                .role(user.getRole())
-                .message("User registered successfully")
-                .build();
+                    return AuthResponse.builder()
+                            .token(token)
+                            .username(user.getUsername())
+                            .role(user.getRole())
+                            .message("User registered successfully")
+                            .build();
+                });
     }
 
-    public AuthResponse authenticate(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
-
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        var token = jwtService.generateToken(user);
+    public CompletableFuture<AuthResponse> authenticate(AuthRequest request) {
+        return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+                ))
+                .thenApply(authentication -> {
+                    var user = (User) authentication.getPrincipal();
+                    var token = jwtService.generateToken(user);
 
-        return AuthResponse.builder()
-                .token(token)
-                .username(user.getUsername())
-                .role(user.getRole())
-                .message("Authentication successful")
-                .build();
+                    return AuthResponse.builder()
+                            .token(token)
+                            .username(user.getUsername())
+                            .role(user.getRole())
+                            .message("Authentication successful")
+                            .build();
+                });
     }
-} 
\ No newline at end of file
+}
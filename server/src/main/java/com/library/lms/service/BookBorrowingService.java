@@ -1,35 +1,59 @@
 package com.library.lms.service;
 
+import com.library.lms.model.AuditAction;
 import com.library.lms.model.Book;
 import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BookBorrowingArchive;
+import com.library.lms.model.BookCopy;
 import com.library.lms.model.BorrowingStatus;
 import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingArchiveRepository;
 import com.library.lms.repository.BookBorrowingRepository;
 import com.library.lms.repository.BookRepository;
 import com.library.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class BookBorrowingService {
+    private static final Sort HISTORY_ORDER =
+            Sort.by(Sort.Direction.DESC, "borrowDate").and(Sort.by(Sort.Direction.DESC, "id"));
+    private static final Comparator<BookBorrowing> HISTORY_COMPARATOR = Comparator
+            .comparing(BookBorrowing::getBorrowDate, Comparator.reverseOrder())
+            .thenComparing(BookBorrowing::getId, Comparator.reverseOrder());
 
     private final BookBorrowingRepository borrowingRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final BookBorrowingArchiveRepository archiveRepository;
+    private final RecommendationService recommendationService;
+    private final CatalogVersionService catalogVersionService;
+    private final ReadYourWritesBroadcaster readYourWritesBroadcaster;
+    private final BookCopyService copyService;
+    private final FineService fineService;
+    private final AuditLogService auditLogService;
 
     @Transactional
     public BookBorrowing borrowBook(Long userId, Long bookId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        fineService.checkCanBorrow(user);
 
-        Book book = bookRepository.findById(bookId)
+        Book book = bookRepository.findByIdForUpdate(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
         if (book.getAvailableCopies() <= 0) {
@@ -41,55 +65,118 @@ public class BookBorrowingService {
             throw new RuntimeException("You already have borrowed this book");
         }
 
+        BookCopy copy = copyService.claimCopy(book);
+
         // Create new borrowing record
         BookBorrowing borrowing = new BookBorrowing();
         borrowing.setUser(user);
         borrowing.setBook(book);
+        borrowing.setCopy(copy);
         borrowing.setBorrowDate(LocalDateTime.now());
         borrowing.setDueDate(LocalDateTime.now().plusDays(14)); // 2 weeks borrowing period
         borrowing.setStatus(BorrowingStatus.BORROWED);
 
-        // Update book available copies
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
         bookRepository.save(book);
+        catalogVersionService.bookChanged(bookId);
 
-        return borrowingRepository.save(borrowing);
+        recommendationService.recordBorrow(userId, bookId);
+        readYourWritesBroadcaster.markWrite(userId);
+
+        BookBorrowing saved = borrowingRepository.save(borrowing);
+        auditLogService.record(AuditAction.BOOK_BORROWED, saved.getId(), bookId,
+                copy != null ? copy.getBarcode() : null);
+        return saved;
     }
 
     @Transactional
     public BookBorrowing returnBook(Long borrowingId) {
-        BookBorrowing borrowing = borrowingRepository.findById(borrowingId)
+        // The row lock orders this against the overdue sweep, which locks the same row when it accrues:
+        // whichever commits second sees the other's result, so no day is charged twice
+        BookBorrowing borrowing = borrowingRepository.findByIdForUpdate(borrowingId)
                 .orElseThrow(() -> new RuntimeException("Borrowing record not found"));
 
         if (borrowing.getReturnDate() != null) {
             throw new RuntimeException("Book already returned");
         }
 
-        borrowing.setReturnDate(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        fineService.settleOnReturn(borrowing, now.toLocalDate());
+        borrowing.setReturnDate(now);
         borrowing.setStatus(BorrowingStatus.RETURNED);
 
-        // Update book available copies
-        Book book = borrowing.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
+        Book book = bookRepository.findByIdForUpdate(borrowing.getBook().getId())
+                .orElseThrow(() -> new RuntimeException("Book not found"));
+        copyService.releaseCopy(book, borrowing.getCopy());
         bookRepository.save(book);
+        catalogVersionService.bookChanged(book.getId());
+        readYourWritesBroadcaster.markWrite(borrowing.getUser().getId());
+        auditLogService.record(AuditAction.BOOK_RETURNED, borrowingId, book.getId(),
+                "fineCents=" + borrowing.getFineCents());
 
         return borrowingRepository.save(borrowing);
     }
 
+    @Transactional(readOnly = true)
     public Page<BookBorrowing> getUserBorrowings(Long userId, Pageable pageable) {
         return borrowingRepository.findByUserId(userId, pageable);
     }
 
+    /**
+     * Active and archived loans merged newest first, paged by keyset on (borrowDate, id): pass the last row's
+     * borrowDate and id as {@code beforeDate}/{@code beforeId} to get the next page. Each page reads at most one
+     * page of rows from each table however deep it is, so page numbers and sorts other than the history order are
+     * rejected rather than silently ignored.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookBorrowing> getBorrowingHistory(Long userId, LocalDateTime beforeDate, Long beforeId,
+                                                   Pageable pageable) {
+        if (pageable.getPageNumber() > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Archived history is paged with beforeDate and beforeId, not page numbers");
+        }
+        Sort sort = pageable.getSort();
+        if (sort.isSorted() && !sort.equals(HISTORY_ORDER) && !sort.equals(Sort.by(Sort.Direction.DESC, "borrowDate"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Archived history can only be sorted by borrowDate,desc");
+        }
+        if ((beforeDate == null) != (beforeId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "beforeDate and beforeId go together");
+        }
+
+        Pageable limit = PageRequest.of(0, pageable.getPageSize());
+        List<BookBorrowing> active = beforeDate == null
+                ? borrowingRepository.findByUserIdOrderByBorrowDateDescIdDesc(userId, limit)
+                : borrowingRepository.findHistoryBefore(userId, beforeDate, beforeId, limit);
+        List<BookBorrowing> archived = (beforeDate == null
+                ? archiveRepository.findByUserIdOrderByBorrowDateDescIdDesc(userId, limit)
+                : archiveRepository.findHistoryBefore(userId, beforeDate, beforeId, limit))
+                .stream()
+                .map(BookBorrowingArchive::toBorrowing)
+                .toList();
+
+        List<BookBorrowing> page = new ArrayList<>(pageable.getPageSize());
+        int a = 0;
+        int b = 0;
+        while (page.size() < pageable.getPageSize() && (a < active.size() || b < archived.size())) {
+            if (b == archived.size()
+                    || (a < active.size() && HISTORY_COMPARATOR.compare(active.get(a), archived.get(b)) <= 0)) {
+                page.add(active.get(a++));
+            } else {
+                page.add(archived.get(b++));
+            }
+        }
+        long total = borrowingRepository.countByUserId(userId) + archiveRepository.countByUserId(userId);
+        return new PageImpl<>(page, PageRequest.of(0, pageable.getPageSize(), HISTORY_ORDER), total);
+    }
+
     @Transactional
     public void checkOverdueBorrowings() {
         LocalDateTime now = LocalDateTime.now();
-        borrowingRepository.findByReturnDateIsNullAndDueDateBefore(now)
-                .forEach(borrowing -> {
-                    borrowing.setStatus(BorrowingStatus.OVERDUE);
-                    borrowingRepository.save(borrowing);
-                });
+        borrowingRepository.markOverdue(BorrowingStatus.OVERDUE, now);
+        fineService.accrueOverdueFines(now.toLocalDate());
     }
 
+    @Transactional(readOnly = true)
     public List<BookBorrowing> getBookBorrowings(Long bookId) {
         return borrowingRepository.findByBookId(bookId);
     }
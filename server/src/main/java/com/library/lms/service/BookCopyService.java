@@ -0,0 +1,177 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.model.BookCopy;
+import com.library.lms.repository.BookCopyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookCopyService {
+
+    private static final String COPIES_CHANGED_EVENT = "copies.changed";
+    private static final String BACKFILL_JOB = "copy-backfill";
+
+    private final BookCopyRepository copyRepository;
+    private final CopyAvailabilityIndex copyIndex;
+    private final ClusterCoordinator clusterCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${lms.copies.backfill-batch-size:200}")
+    private int backfillBatchSize;
+
+    @PostConstruct
+    public void subscribeToClusterEvents() {
+        clusterCoordinator.subscribe(COPIES_CHANGED_EVENT, payload -> copyIndex.invalidate(Long.valueOf(payload)));
+    }
+
+    // Callers hold the book row lock, so copies of one title are never claimed concurrently on this node.
+    // Claims and releases take the book's counter from the index they just updated, without a COUNT query.
+    public BookCopy claimCopy(Book book) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long copyId = copyIndex.claimFreeCopy(book.getId());
+            if (copyId != null && copyRepository.compareAndSetAvailable(copyId, true, false) == 1) {
+                book.setAvailableCopies(copyIndex.availableCount(book.getId()));
+                copiesChanged(book.getId(), false);
+                return copyRepository.findById(copyId)
+                        .orElseThrow(() -> new RuntimeException("Book copy not found"));
+            }
+            // Index was stale (e.g. changed on another instance); reload it and try once more
+            copyIndex.invalidate(book.getId());
+        }
+        throw new RuntimeException("No copies available for borrowing");
+    }
+
+    public void releaseCopy(Book book, BookCopy copy) {
+        if (copy == null) {
+            // Borrowed before copies were tracked; free one of the copies the backfill marked as out
+            copy = copyRepository.findUnassignedBorrowedByBookId(book.getId(), PageRequest.of(0, 1)).stream()
+                    .findFirst()
+                    .orElse(null);
+            if (copy == null) {
+                return;
+            }
+        }
+        if (copyRepository.compareAndSetAvailable(copy.getId(), false, true) == 1) {
+            copyIndex.release(book.getId(), copy.getId());
+            book.setAvailableCopies(copyIndex.availableCount(book.getId()));
+            copiesChanged(book.getId(), false);
+        }
+    }
+
+    // Recounts the copies in the database, for adding and resizing titles where the index is reloaded anyway.
+    // Callers hold the book row lock, and the query sees this transaction's own copy updates.
+    public void syncAvailableCopies(Book book) {
+        book.setAvailableCopies((int) copyRepository.countAvailableByBookId(book.getId()));
+    }
+
+    public void createCopies(Book book, int count, int borrowedCount) {
+        long sequence = copyRepository.countByBookId(book.getId());
+        for (int i = 0; i < count; i++) {
+            BookCopy copy = new BookCopy();
+            copy.setBook(book);
+            copy.setBarcode(String.format("LMS-%06d-%03d", book.getId(), ++sequence));
+            copy.setAvailable(i >= borrowedCount);
+            copy.setBranchId(book.getBranchId());
+            copyRepository.save(copy);
+        }
+        copiesChanged(book.getId(), true);
+    }
+
+    // Sets the number of copies in circulation, adjusting the derived counters on the book
+    public void resizeCopies(Book book, int totalCopies) {
+        int difference = totalCopies - book.getTotalCopies();
+        if (difference > 0) {
+            createCopies(book, difference, 0);
+        } else if (difference < 0) {
+            List<BookCopy> removable = copyRepository.findAvailableByBookId(book.getId(), PageRequest.of(0, -difference));
+            if (removable.size() < -difference) {
+                throw new IllegalArgumentException("Cannot remove copies that are currently borrowed");
+            }
+            removable.forEach(copy -> {
+                copy.setAvailable(false);
+                copy.setWithdrawn(true);
+            });
+            copyRepository.saveAll(removable);
+            copiesChanged(book.getId(), true);
+        }
+        book.setTotalCopies(totalCopies);
+        syncAvailableCopies(book);
+    }
+
+    public void deleteCopies(Long bookId) {
+        copyRepository.deleteByBookId(bookId);
+        copiesChanged(bookId, true);
+    }
+
+    // Creates copies for titles that existed before copies were tracked, off the startup thread
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBackfill() {
+        taskScheduler.schedule(this::backfillCopies, Instant.now());
+    }
+
+    // One transaction per batch of books, so memory and lock time stay bounded at catalog scale
+    public void backfillCopies() {
+        if (!clusterCoordinator.isLeader(BACKFILL_JOB)) {
+            return;
+        }
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            long cursor = afterId;
+            List<Long> done = transactionTemplate.execute(status -> {
+                List<Book> books = copyRepository.findBooksWithoutCopies(cursor, PageRequest.of(0, backfillBatchSize));
+                for (Book book : books) {
+                    createCopies(book, book.getTotalCopies(), book.getTotalCopies() - book.getAvailableCopies());
+                }
+                return books.stream().map(Book::getId).toList();
+            });
+            if (done == null || done.isEmpty()) {
+                break;
+            }
+            total += done.size();
+            afterId = done.get(done.size() - 1);
+            if (!clusterCoordinator.renewLeadership(BACKFILL_JOB)) {
+                log.warn("Lost the {} lease after {} books, leaving the rest to the new leader", BACKFILL_JOB, total);
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Created copies for {} books", total);
+        }
+    }
+
+    // Claims and releases already updated the local index, so it only needs reloading if they roll back;
+    // adding or withdrawing copies changes the set of copies and always reloads
+    private void copiesChanged(Long bookId, boolean copySetChanged) {
+        clusterCoordinator.publish(COPIES_CHANGED_EVENT, bookId.toString());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            copyIndex.invalidate(bookId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (copySetChanged || status != STATUS_COMMITTED) {
+                    copyIndex.invalidate(bookId);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.lms.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.lms.model.Book;
+import com.library.lms.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.ThrowingSupplier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes large book pages as JSON row by row, in the PageResponse shape, without building the list or the tree
+@Service
+public class BookPageStreamer {
+
+    private final EntityManager entityManager;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter bookWriter;
+    private final int minPageSize;
+    private final int fetchSize;
+
+    public BookPageStreamer(
+            EntityManager entityManager,
+            BookRepository bookRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${lms.streaming.min-page-size:200}") int minPageSize,
+            @Value("${lms.streaming.fetch-size:100}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // Flushing after every book would defeat the generator's buffer
+        this.bookWriter = objectMapper.writerFor(Book.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.minPageSize = minPageSize;
+        this.fetchSize = fetchSize;
+    }
+
+    public boolean shouldStream(Pageable pageable) {
+        return pageable.isPaged() && pageable.getPageSize() >= minPageSize;
+    }
+
+    /**
+     * Writes one page from a single cursor on the calling thread. The count runs and the first row is read before
+     * {@code body} is asked for the output stream, so a bad sort or a database error still becomes a normal error
+     * response; {@code body} is where the caller commits the status and headers. A failure after that can only cut
+     * the page short, and the generator leaves it unterminated so clients see invalid JSON rather than a shorter
+     * page that parses.
+     */
+    public void writePage(Specification<Book> spec, Pageable pageable, ThrowingSupplier<OutputStream> body)
+            throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                long total = spec != null ? bookRepository.count(spec) : bookRepository.count();
+                try (Stream<Book> books = query(spec, pageable).getResultStream()) {
+                    Iterator<Book> rows = books.iterator();
+                    Book first = rows.hasNext() ? rows.next() : null;
+                    write(body.get(), pageable, first, rows, total);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void write(OutputStream out, Pageable pageable, Book first, Iterator<Book> rest, long total)
+            throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Otherwise closing after a failure would write the missing brackets and pass the truncation off as valid
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("content");
+            for (Book book = first; book != null; book = rest.hasNext() ? rest.next() : null) {
+                bookWriter.writeValue(generator, book);
+                // Keeps the persistence context from growing with the page
+                entityManager.detach(book);
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("number", pageable.getPageNumber());
+            generator.writeNumberField("size", pageable.getPageSize());
+            generator.writeNumberField("totalElements", total);
+            generator.writeNumberField("totalPages", (int) ((total + pageable.getPageSize() - 1) / pageable.getPageSize()));
+            generator.writeEndObject();
+        }
+    }
+
+    private TypedQuery<Book> query(Specification<Book> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        // Without a unique last key, rows that tie on the sort can move between pages
+        Sort sort = pageable.getSort().getOrderFor("id") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by("id"));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true);
+    }
+}
@@ -1,6 +1,7 @@
 package com.library.lms.service;
 
 import com.library.lms.dto.BookSearchDTO;
+import com.library.lms.model.AuditAction;
 import com.library.lms.model.Book;
 import com.library.lms.repository.BookRepository;
 import com.library.lms.repository.BookSpecification;
@@ -14,7 +15,11 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class BookService {
     private final BookRepository bookRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final BookCopyService copyService;
+    private final AuditLogService auditLogService;
 
+    @Transactional(readOnly = true)
     public Page<Book> searchBooks(String title, String author, String genre, 
                                 String publisher, Integer publicationYear, 
                                 boolean availableOnly, Pageable pageable) {
@@ -22,30 +27,41 @@ public class BookService {
                                         publicationYear, availableOnly, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Book> searchBooks(BookSearchDTO searchDTO, Pageable pageable) {
         return bookRepository.findAll(BookSpecification.searchBooks(searchDTO), pageable);
     }
 
     @Transactional
     public Book addBook(Book book) {
-        return bookRepository.save(book);
+        // Counters are derived from the copies created below, never taken from the request
+        book.setAvailableCopies(book.getTotalCopies());
+        Book saved = bookRepository.save(book);
+        copyService.createCopies(saved, saved.getTotalCopies(), 0);
+        copyService.syncAvailableCopies(saved);
+        catalogVersionService.bookChanged(saved.getId());
+        auditLogService.record(AuditAction.BOOK_ADDED, saved.getId(), null,
+                saved.getTitle() + " copies=" + saved.getTotalCopies());
+        return saved;
     }
 
     @Transactional
     public Book updateBook(Long id, Book bookDetails) {
-        Book book = bookRepository.findById(id)
+        Book book = bookRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Book not found"));
 
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setIsbn(bookDetails.getIsbn());
         book.setDescription(bookDetails.getDescription());
-        book.setTotalCopies(bookDetails.getTotalCopies());
-        book.setAvailableCopies(bookDetails.getAvailableCopies());
+        copyService.resizeCopies(book, bookDetails.getTotalCopies());
         book.setGenre(bookDetails.getGenre());
         book.setPublisher(bookDetails.getPublisher());
         book.setPublicationYear(bookDetails.getPublicationYear());
 
+        catalogVersionService.bookChanged(id);
+        auditLogService.record(AuditAction.BOOK_UPDATED, id, null,
+                book.getTitle() + " copies=" + book.getTotalCopies());
         return bookRepository.save(book);
     }
 
@@ -54,14 +70,19 @@ public class BookService {
         if (!bookRepository.existsById(id)) {
             throw new IllegalArgumentException("Book not found");
         }
+        copyService.deleteCopies(id);
         bookRepository.deleteById(id);
+        catalogVersionService.bookChanged(id);
+        auditLogService.record(AuditAction.BOOK_DELETED, id, null, null);
     }
 
+    @Transactional(readOnly = true)
     public Book getBook(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Book not found"));
     }
 
+    @Transactional(readOnly = true)
     public Page<Book> getAllBooks(Pageable pageable) {
         return bookRepository.findAll(pageable);
     }
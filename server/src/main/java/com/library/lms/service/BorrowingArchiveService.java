@@ -0,0 +1,90 @@
+package com.library.lms.service;
+
+import com.library.lms.model.BorrowingStatus;
+import com.library.lms.repository.BookBorrowingArchiveRepository;
+import com.library.lms.repository.BookBorrowingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BorrowingArchiveService {
+
+    private static final String ARCHIVE_JOB = "borrowing-archive";
+
+    private final BookBorrowingRepository borrowingRepository;
+    private final BookBorrowingArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Value("${lms.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${lms.archive.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${lms.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${lms.archive.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Scheduled(cron = "${lms.archive.cron:0 30 2 * * *}")
+    public void archiveReturnedBorrowings() {
+        if (!enabled || !clusterCoordinator.isLeader(ARCHIVE_JOB)) {
+            return;
+        }
+        int archived = archiveReturnedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Archived {} returned borrowing records", archived);
+    }
+
+    public int archiveReturnedBefore(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            // Each batch commits on its own so locks on book_borrowing are held only briefly
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+            if (moved < batchSize || !pause()) {
+                return total;
+            }
+            if (!clusterCoordinator.renewLeadership(ARCHIVE_JOB)) {
+                log.warn("Lost the {} lease after archiving {} records, leaving the rest to the new leader",
+                        ARCHIVE_JOB, total);
+                return total;
+            }
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = borrowingRepository.findIdsByStatusAndReturnDateBefore(
+                BorrowingStatus.RETURNED, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyFromActive(ids, LocalDateTime.now());
+        borrowingRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.lms.service;
+
+import com.library.lms.config.BranchContext;
+import com.library.lms.dto.BookSearchDTO;
+import com.library.lms.model.Book;
+import com.library.lms.security.BranchAccess;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+@Service
+public class BranchSearchService {
+
+    private final BookService bookService;
+    private final BranchAccess branchAccess;
+    private final long maxOffset;
+    private final ExecutorService executor;
+
+    public BranchSearchService(
+            BookService bookService,
+            BranchAccess branchAccess,
+            @Value("${lms.branches.search-max-offset:1000}") long maxOffset) {
+        this.bookService = bookService;
+        this.branchAccess = branchAccess;
+        this.maxOffset = maxOffset;
+        this.executor = Executors.newFixedThreadPool(
+                branchAccess.getBranchIds().size(), new CustomizableThreadFactory("branch-search-"));
+    }
+
+    // Runs the search in every branch in parallel and merge-sorts the per-branch heads into one page.
+    // Each branch returns offset + size rows, so the offset is capped rather than letting deep pages
+    // load that many rows from every branch.
+    public Page<Book> searchAllBranches(BookSearchDTO searchDTO, Pageable pageable) {
+        if (!branchAccess.mayUseEvery(BranchAccess.currentUser())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Searching every branch is not allowed");
+        }
+        if (pageable.getOffset() > maxOffset) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Searches across every branch go at most " + maxOffset + " results deep; narrow the filters");
+        }
+        Comparator<Book> comparator = comparatorFor(pageable.getSort());
+        int window = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        Pageable head = PageRequest.of(0, window, pageable.getSort());
+
+        List<CompletableFuture<Page<Book>>> searches = branchAccess.getBranchIds().stream()
+                .map(branchId -> CompletableFuture.supplyAsync(
+                        () -> BranchContext.callIn(branchId, () -> bookService.searchBooks(searchDTO, head)),
+                        executor))
+                .toList();
+        List<Page<Book>> pages = searches.stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        List<Book> merged = pages.stream()
+                .flatMap(Page::stream)
+                .sorted(comparator)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(merged, pageable, total);
+    }
+
+    // Resolved once per request, so the merge sort compares through plain getters
+    private static Comparator<Book> comparatorFor(Sort sort) {
+        Comparator<Book> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Book> byProperty = propertyComparator(order.getProperty());
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator
+                .thenComparing(by(Book::getBranchId))
+                .thenComparing(Book::getId);
+    }
+
+    private static Comparator<Book> propertyComparator(String property) {
+        return switch (property) {
+            case "id" -> by(Book::getId);
+            case "title" -> by(Book::getTitle);
+            case "author" -> by(Book::getAuthor);
+            case "isbn" -> by(Book::getIsbn);
+            case "description" -> by(Book::getDescription);
+            case "genre" -> by(Book::getGenre);
+            case "publisher" -> by(Book::getPublisher);
+            case "publicationYear" -> by(Book::getPublicationYear);
+            case "totalCopies" -> by(Book::getTotalCopies);
+            case "availableCopies" -> by(Book::getAvailableCopies);
+            case "branchId" -> by(Book::getBranchId);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cannot sort a search across branches by " + property);
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Book> by(Function<Book, T> key) {
+        return Comparator.comparing(key, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,67 @@
+package com.library.lms.service;
+
+import com.library.lms.config.BranchContext;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class CatalogVersionService {
+
+    private static final String BOOK_CHANGED_EVENT = "catalog.book-changed";
+
+    private final ClusterCoordinator clusterCoordinator;
+
+    // Versions are cluster event ids, so every instance that has applied the same events issues the same tags
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> bookVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribeToClusterEvents() {
+        clusterCoordinator.subscribe(BOOK_CHANGED_EVENT, (payload, eventId) -> bump(Long.valueOf(payload), eventId));
+    }
+
+    public void bookChanged(Long bookId) {
+        long version = clusterCoordinator.publish(BOOK_CHANGED_EVENT, bookId.toString());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Bump only once the change is visible, otherwise a concurrent read could cache old data under the new tag
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(bookId, version);
+                }
+            });
+        } else {
+            bump(bookId, version);
+        }
+    }
+
+    // Weak tags: the same version is served as JSON or CBOR and may be gzipped on the way out, so the tag
+    // names the representation and promises equivalent content rather than identical bytes
+    public String bookETag(Long bookId, String representation) {
+        return "W/\"b" + bookId + "-" + BranchContext.get() + "-" + atLeastFloor(bookVersions.getOrDefault(bookId, 0L))
+                + "-" + representation + "\"";
+    }
+
+    public String catalogETag(String representation) {
+        // Listings differ per branch, so the branch is part of the tag
+        return "W/\"c" + BranchContext.get() + "-" + atLeastFloor(catalogVersion.get()) + "-" + representation + "\"";
+    }
+
+    // Changes older than the purged events are no longer known individually, so they all share the floor;
+    // it only rises, so a tag never returns to a value issued for older content
+    private long atLeastFloor(long version) {
+        return Math.max(version, clusterCoordinator.getVersionFloor());
+    }
+
+    private void bump(Long bookId, long version) {
+        bookVersions.merge(bookId, version, Math::max);
+        catalogVersion.accumulateAndGet(version, Math::max);
+    }
+}
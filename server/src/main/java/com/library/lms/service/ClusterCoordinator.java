@@ -0,0 +1,228 @@
+package com.library.lms.service;
+
+import com.library.lms.model.ClusterEvent;
+import com.library.lms.model.ClusterLease;
+import com.library.lms.repository.ClusterEventRepository;
+import com.library.lms.repository.ClusterLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+// Coordinates instances sharing one database: lease-based leader election and polled event broadcast
+@Slf4j
+@Service
+public class ClusterCoordinator {
+
+    private static final String PURGED_EVENT = "cluster.events-purged";
+    private static final int POLL_BATCH_SIZE = 500;
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ClusterLeaseRepository leaseRepository;
+    private final ClusterEventRepository eventRepository;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, List<ObjLongConsumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+    // Without a cluster, versions continue from the start time so values issued before a restart never repeat
+    private final AtomicLong localVersion = new AtomicLong(System.currentTimeMillis() * 1000);
+    // Every version at or below this is indistinguishable: the events that told them apart have been purged
+    private volatile long versionFloor = localVersion.get();
+
+    // Only touched by the polling thread. Ids are assigned at insert but become visible at commit, so an id
+    // skipped by the cursor is re-checked until it shows up or the gap timeout passes (a rolled-back insert).
+    private long cursor;
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    @Value("${lms.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${lms.cluster.lease-ttl-ms:60000}")
+    private long leaseTtlMs;
+
+    @Value("${lms.cluster.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${lms.cluster.event-retention-minutes:60}")
+    private long eventRetentionMinutes;
+
+    public ClusterCoordinator(
+            ClusterLeaseRepository leaseRepository,
+            ClusterEventRepository eventRepository,
+            PlatformTransactionManager transactionManager) {
+        this.leaseRepository = leaseRepository;
+        this.eventRepository = eventRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Starts from the last purge, so the first poll replays every retained event and a new instance
+    // rebuilds the same state as the ones already running
+    @PostConstruct
+    public void initCursor() {
+        if (!enabled) {
+            return;
+        }
+        long purgedThrough = eventRepository.findTopByTypeOrderByIdDesc(PURGED_EVENT)
+                .map(event -> Long.parseLong(event.getPayload()))
+                .orElse(0L);
+        versionFloor = purgedThrough;
+        cursor = purgedThrough;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getVersionFloor() {
+        return versionFloor;
+    }
+
+    public boolean isLeader(String job) {
+        if (!enabled) {
+            return true;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(leaseTtlMs * 1_000_000);
+        try {
+            Boolean acquired = newTransaction.execute(status -> {
+                if (leaseRepository.acquireOrRenew(job, nodeId, expiresAt, now) > 0) {
+                    return true;
+                }
+                if (leaseRepository.existsById(job)) {
+                    return false;
+                }
+                leaseRepository.saveAndFlush(new ClusterLease(job, nodeId, expiresAt));
+                return true;
+            });
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the lease row first
+            return false;
+        }
+    }
+
+    // Jobs that can outlive the lease TTL call this between batches and stop once it returns false,
+    // because another instance has taken the job over
+    public boolean renewLeadership(String job) {
+        if (!enabled) {
+            return true;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(leaseTtlMs * 1_000_000);
+        Integer renewed = newTransaction.execute(status -> leaseRepository.renew(job, nodeId, expiresAt));
+        return renewed != null && renewed > 0;
+    }
+
+    // Joins the caller's transaction, so other instances only see the event once the change is committed.
+    // Returns the event id, which every instance sees for this change and which orders it after earlier ones.
+    public long publish(String type, String payload) {
+        if (!enabled) {
+            return localVersion.incrementAndGet();
+        }
+        ClusterEvent event = new ClusterEvent();
+        event.setType(type);
+        event.setPayload(payload);
+        event.setOrigin(nodeId);
+        event.setCreatedAt(LocalDateTime.now());
+        return eventRepository.save(event).getId();
+    }
+
+    public void subscribe(String type, Consumer<String> handler) {
+        subscribe(type, (payload, eventId) -> handler.accept(payload));
+    }
+
+    public void subscribe(String type, ObjLongConsumer<String> handler) {
+        subscribers.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    @Scheduled(fixedDelayString = "${lms.cluster.poll-interval-ms:1000}")
+    public void pollEvents() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<ClusterEvent> events = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (ClusterEvent late : eventRepository.findAllById(gaps.keySet())) {
+                gaps.remove(late.getId());
+                events.add(late);
+            }
+            gaps.values().removeIf(deadline -> deadline - now < 0);
+        }
+        List<ClusterEvent> batch;
+        do {
+            batch = eventRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, POLL_BATCH_SIZE));
+            for (ClusterEvent event : batch) {
+                for (long missing = cursor + 1; missing < event.getId() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, now + gapTimeoutMs * 1_000_000);
+                }
+                cursor = event.getId();
+            }
+            events.addAll(batch);
+        } while (batch.size() == POLL_BATCH_SIZE);
+
+        events.sort(Comparator.comparing(ClusterEvent::getId));
+        for (ClusterEvent event : events) {
+            if (PURGED_EVENT.equals(event.getType())) {
+                raiseVersionFloor(Long.parseLong(event.getPayload()));
+            } else if (!nodeId.equals(event.getOrigin())) {
+                dispatch(event);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${lms.cluster.event-purge-cron:0 15 * * * *}")
+    public void purgeEvents() {
+        if (!enabled || !isLeader("cluster-event-purge")) {
+            return;
+        }
+        Long purgedThrough = newTransaction.execute(status -> {
+            Long through = eventRepository.findMaxIdCreatedBefore(LocalDateTime.now().minusMinutes(eventRetentionMinutes));
+            if (through == null) {
+                return null;
+            }
+            eventRepository.deleteThrough(through);
+            // Instances started later read their floor from this marker, which outlives the rows it replaced
+            publish(PURGED_EVENT, through.toString());
+            return through;
+        });
+        if (purgedThrough != null) {
+            raiseVersionFloor(purgedThrough);
+        }
+    }
+
+    private void dispatch(ClusterEvent event) {
+        for (ObjLongConsumer<String> handler : subscribers.getOrDefault(event.getType(), List.of())) {
+            try {
+                handler.accept(event.getPayload(), event.getId());
+            } catch (RuntimeException e) {
+                log.warn("Cluster event handler failed for {} {}", event.getType(), event.getPayload(), e);
+            }
+        }
+    }
+
+    private void raiseVersionFloor(long purgedThrough) {
+        if (purgedThrough > versionFloor) {
+            versionFloor = purgedThrough;
+        }
+    }
+}
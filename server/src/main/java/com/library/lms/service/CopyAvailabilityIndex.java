@@ -0,0 +1,96 @@
+package com.library.lms.service;
+
+import com.library.lms.repository.BookCopyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory bitset of free copies per title, loaded on first use. The database stays authoritative:
+// a claimed copy is confirmed with a conditional update, and any mismatch just drops the entry.
+@Component
+@RequiredArgsConstructor
+public class CopyAvailabilityIndex {
+
+    private final BookCopyRepository copyRepository;
+    private final ConcurrentHashMap<Long, CopySet> byBook = new ConcurrentHashMap<>();
+
+    public Long claimFreeCopy(Long bookId) {
+        long copyId = copySet(bookId).claim();
+        return copyId < 0 ? null : copyId;
+    }
+
+    public void release(Long bookId, Long copyId) {
+        CopySet set = byBook.get(bookId);
+        if (set != null && !set.release(copyId)) {
+            // Copy added since the entry was loaded
+            invalidate(bookId);
+        }
+    }
+
+    public int availableCount(Long bookId) {
+        return copySet(bookId).availableCount();
+    }
+
+    public void invalidate(Long bookId) {
+        byBook.remove(bookId);
+    }
+
+    private CopySet copySet(Long bookId) {
+        CopySet set = byBook.get(bookId);
+        if (set == null) {
+            set = new CopySet(copyRepository.findStatesByBookId(bookId));
+            CopySet existing = byBook.putIfAbsent(bookId, set);
+            if (existing != null) {
+                set = existing;
+            }
+        }
+        return set;
+    }
+
+    private static final class CopySet {
+        private final long[] copyIds;
+        private final long[] free;
+
+        CopySet(List<Object[]> states) {
+            copyIds = new long[states.size()];
+            free = new long[(states.size() + 63) >>> 6];
+            for (int i = 0; i < states.size(); i++) {
+                copyIds[i] = (Long) states.get(i)[0];
+                if ((Boolean) states.get(i)[1]) {
+                    free[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        synchronized long claim() {
+            for (int word = 0; word < free.length; word++) {
+                if (free[word] != 0) {
+                    int bit = Long.numberOfTrailingZeros(free[word]);
+                    free[word] &= ~(1L << bit);
+                    return copyIds[(word << 6) + bit];
+                }
+            }
+            return -1;
+        }
+
+        synchronized boolean release(long copyId) {
+            int index = Arrays.binarySearch(copyIds, copyId);
+            if (index < 0) {
+                return false;
+            }
+            free[index >>> 6] |= 1L << index;
+            return true;
+        }
+
+        synchronized int availableCount() {
+            int count = 0;
+            for (long word : free) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.DueReminderItem;
+import com.library.lms.dto.ReminderDigest;
+import com.library.lms.model.ReminderLog;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.ReminderLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DueDateReminderService {
+
+    private final BookBorrowingRepository borrowingRepository;
+    private final ReminderLogRepository reminderLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterCoordinator clusterCoordinator;
+    private final ReminderSender reminderSender;
+
+    @Value("${lms.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${lms.reminders.days-ahead:3}")
+    private int daysAhead;
+
+    @Value("${lms.reminders.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${lms.reminders.concurrency:4}")
+    private int concurrency;
+
+    @Value("${lms.reminders.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${lms.reminders.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${lms.reminders.log-retention-days:30}")
+    private int logRetentionDays;
+
+    @Scheduled(cron = "${lms.reminders.cron:0 0 8 * * *}")
+    public void sendDueReminders() {
+        if (!enabled || !clusterCoordinator.isLeader("due-date-reminders")) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int sent = sendRemindersDueBetween(now, now.plusDays(daysAhead));
+        Integer purged = transactionTemplate.execute(status ->
+            reminderLogRepository.deleteByDueDateBefore(now.minusDays(logRetentionDays)));
+        log.info("Sent {} due-date reminder digests, purged {} old reminder log entries", sent, purged);
+    }
+
+    // Finds the users due a reminder from the index alone, then loads their loans a batch of users at a time, so
+    // every query is bounded by the due window rather than by all open loans and each user gets one digest
+    public int sendRemindersDueBetween(LocalDateTime from, LocalDateTime to) {
+        List<Long> userIds = borrowingRepository.findUserIdsWithLoansDueBetween(from, to);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("reminder-"));
+        // Caps digests in flight so a slow mail server applies back-pressure to the scan
+        Semaphore inFlight = new Semaphore(concurrency * 2);
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            for (int start = 0; start < userIds.size(); start += chunkSize) {
+                List<Long> batch = userIds.subList(start, Math.min(start + chunkSize, userIds.size()));
+                List<DueReminderItem> pending = new ArrayList<>();
+                for (DueReminderItem item : borrowingRepository.findDueReminderItems(from, to, batch)) {
+                    if (!pending.isEmpty() && !pending.get(0).getUserId().equals(item.getUserId())) {
+                        dispatch(pending, executor, inFlight, sent);
+                        pending = new ArrayList<>();
+                    }
+                    pending.add(item);
+                }
+                if (!pending.isEmpty()) {
+                    dispatch(pending, executor, inFlight, sent);
+                }
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return sent.get();
+    }
+
+    private void dispatch(List<DueReminderItem> items, ExecutorService executor, Semaphore inFlight, AtomicInteger sent)
+            throws InterruptedException {
+        DueReminderItem first = items.get(0);
+        ReminderDigest digest = new ReminderDigest(first.getUserId(), first.getUsername(), first.getEmail(), items);
+        inFlight.acquire();
+        executor.execute(() -> {
+            try {
+                if (deliver(digest)) {
+                    recordSent(digest);
+                    sent.incrementAndGet();
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private boolean deliver(ReminderDigest digest) {
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                reminderSender.send(digest);
+                return true;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    // Not logged as sent, so the next run picks these loans up again
+                    log.warn("Giving up on reminder for user {} after {} attempts: {}",
+                            digest.getUserId(), attempt, e.getMessage());
+                    return false;
+                }
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoff *= 2;
+        }
+    }
+
+    private void recordSent(ReminderDigest digest) {
+        LocalDateTime sentAt = LocalDateTime.now();
+        List<ReminderLog> entries = new ArrayList<>(digest.getItems().size());
+        for (DueReminderItem item : digest.getItems()) {
+            entries.add(new ReminderLog(null, item.getBorrowingId(), item.getUserId(), item.getDueDate(), sentAt));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> reminderLogRepository.saveAll(entries));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Reminder for user {} was already recorded", digest.getUserId());
+        }
+    }
+}
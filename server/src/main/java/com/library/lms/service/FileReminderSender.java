@@ -0,0 +1,29 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.ReminderDigest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Default sender: writes each digest to its own file in an outbox directory, handy for development and tests
+public class FileReminderSender implements ReminderSender {
+
+    private final Path outboxDir;
+
+    public FileReminderSender(String outboxDir) {
+        this.outboxDir = Paths.get(outboxDir);
+    }
+
+    @Override
+    public void send(ReminderDigest digest) throws IOException {
+        Files.createDirectories(outboxDir);
+        String message = "To: " + digest.getEmail() + "\n"
+            + "Subject: " + ReminderSender.subject(digest) + "\n\n"
+            + ReminderSender.body(digest);
+        Path file = outboxDir.resolve("reminder-" + digest.getUserId() + "-" + System.currentTimeMillis() + ".txt");
+        Files.writeString(file, message, StandardCharsets.UTF_8);
+    }
+}
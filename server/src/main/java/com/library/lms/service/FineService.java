@@ -0,0 +1,91 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.FineBalanceDTO;
+import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Fines accrue per loan in daily steps; users.outstanding_fine_cents holds the running total so reads never scan loans
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FineService {
+
+    private final BookBorrowingRepository borrowingRepository;
+    private final UserRepository userRepository;
+
+    @Value("${lms.fines.daily-rate-cents:25}")
+    private long dailyRateCents;
+
+    @Value("${lms.fines.max-per-loan-cents:2000}")
+    private long maxPerLoanCents;
+
+    @Value("${lms.fines.borrow-limit-cents:1000}")
+    private long borrowLimitCents;
+
+    // Safe to run repeatedly: each loan is accrued at most once per day, and missed days are caught up
+    @Transactional
+    public int accrueOverdueFines(LocalDate today) {
+        // Loans first: their row locks keep returnBook out until commit, and the balances are summed from
+        // exactly the rows this run changed, so a concurrent return can neither be missed nor charged twice
+        long run = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        int loans = borrowingRepository.accrueFines(today, dailyRateCents, maxPerLoanCents, run);
+        if (loans > 0) {
+            userRepository.addAccruedFines(run);
+            log.info("Accrued fines on {} overdue loans", loans);
+        }
+        return loans;
+    }
+
+    // Brings a loan's fine up to the return day. The caller must hold the loan's row lock, taken before it
+    // was read, so fineAccruedOn already reflects any sweep that committed first
+    public void settleOnReturn(BookBorrowing borrowing, LocalDate returnDay) {
+        LocalDate accruedOn = borrowing.getFineAccruedOn() != null
+                ? borrowing.getFineAccruedOn()
+                : borrowing.getDueDate().toLocalDate();
+        long days = ChronoUnit.DAYS.between(accruedOn, returnDay);
+        long delta = Math.min(maxPerLoanCents - borrowing.getFineCents(), days * dailyRateCents);
+        if (days <= 0 || delta <= 0) {
+            return;
+        }
+        borrowing.setFineCents(borrowing.getFineCents() + delta);
+        borrowing.setFineAccruedOn(returnDay);
+        userRepository.addFine(borrowing.getUser().getId(), delta);
+    }
+
+    // Uses the balance on the already loaded user, so borrowing pays for no extra query
+    public void checkCanBorrow(User user) {
+        if (isBlocked(user.getOutstandingFineCents())) {
+            throw new RuntimeException("Outstanding fines exceed the borrowing limit, please pay them first");
+        }
+    }
+
+    public FineBalanceDTO getBalance(User user) {
+        long outstanding = user.getOutstandingFineCents();
+        return new FineBalanceDTO(outstanding, borrowLimitCents, isBlocked(outstanding));
+    }
+
+    @Transactional
+    public void recordPayment(Long userId, long amountCents) {
+        if (amountCents <= 0) {
+            throw new RuntimeException("Payment amount must be positive");
+        }
+        if (userRepository.deductFine(userId, amountCents) == 0) {
+            throw new RuntimeException("Payment exceeds the outstanding balance");
+        }
+    }
+
+    private boolean isBlocked(long outstandingCents) {
+        return outstandingCents > borrowLimitCents;
+    }
+}
@@ -0,0 +1,377 @@
+package com.library.lms.service;
+
+import com.library.lms.config.ConnectionPoolMetrics;
+import com.library.lms.dto.DiagnosticsSummary;
+import com.library.lms.dto.JfrRecordingInfo;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Flight Recorder sessions and a short-lived live event stream, started on demand so nothing runs when idle
+@Slf4j
+@Service
+public class JfrDiagnosticsService {
+
+    private static final String APPLICATION_PACKAGE = "com.library.lms";
+    private static final int MAX_TRACKED_SITES = 5_000;
+
+    private final ConnectionPoolMetrics poolMetrics;
+    private final TaskScheduler taskScheduler;
+    private final Path recordingDir;
+    private final int maxDurationSeconds;
+    private final Duration contentionThreshold;
+    private final int topSites;
+    private final int maxActiveRecordings;
+    private final Duration retention;
+
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+    private final Map<Long, String> profiles = new ConcurrentHashMap<>();
+
+    private RecordingStream liveStream;
+    private LiveWindow liveWindow;
+
+    public JfrDiagnosticsService(
+            ConnectionPoolMetrics poolMetrics,
+            TaskScheduler taskScheduler,
+            @Value("${lms.diagnostics.recording-dir:${java.io.tmpdir}/lms-jfr}") String recordingDir,
+            @Value("${lms.diagnostics.max-duration-seconds:600}") int maxDurationSeconds,
+            @Value("${lms.diagnostics.contention-threshold-ms:10}") long contentionThresholdMs,
+            @Value("${lms.diagnostics.top-sites:15}") int topSites,
+            @Value("${lms.diagnostics.max-active-recordings:2}") int maxActiveRecordings,
+            @Value("${lms.diagnostics.retention-hours:24}") int retentionHours) {
+        this.poolMetrics = poolMetrics;
+        this.taskScheduler = taskScheduler;
+        this.recordingDir = Paths.get(recordingDir);
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.contentionThreshold = Duration.ofMillis(contentionThresholdMs);
+        this.topSites = topSites;
+        this.maxActiveRecordings = maxActiveRecordings;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    public synchronized JfrRecordingInfo startRecording(String profile, int durationSeconds) {
+        checkDuration(durationSeconds);
+        long active = recordings.values().stream().filter(JfrDiagnosticsService::isActive).count();
+        if (active >= maxActiveRecordings) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    active + " recordings are already running; stop one before starting another");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(profile);
+        } catch (IOException | ParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown JFR profile: " + profile);
+        }
+        try {
+            Files.createDirectories(recordingDir);
+            Recording recording = new Recording(configuration);
+            recording.setName("lms-" + System.currentTimeMillis());
+            recording.setToDisk(true);
+            recording.setDuration(Duration.ofSeconds(durationSeconds));
+            // With a destination set the file is written when the duration elapses or on stop
+            recording.setDestination(recordingDir.resolve(recording.getName() + ".jfr"));
+            recording.start();
+            recordings.put(recording.getId(), recording);
+            profiles.put(recording.getId(), profile);
+            log.info("Started JFR recording {} with profile {} for {}s", recording.getId(), profile, durationSeconds);
+            return toInfo(recording);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not start recording", e);
+        }
+    }
+
+    public JfrRecordingInfo stopRecording(long id) {
+        Recording recording = getRecording(id);
+        if (isActive(recording)) {
+            recording.stop();
+        }
+        return toInfo(recording);
+    }
+
+    public List<JfrRecordingInfo> listRecordings() {
+        return recordings.values().stream()
+                .sorted(Comparator.comparingLong(Recording::getId))
+                .map(this::toInfo)
+                .toList();
+    }
+
+    public Path getRecordingFile(long id) {
+        Recording recording = getRecording(id);
+        Path file = recording.getDestination();
+        if (recording.getState() != RecordingState.STOPPED && recording.getState() != RecordingState.CLOSED
+                || file == null || !Files.exists(file)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Recording " + id + " has not finished yet");
+        }
+        return file;
+    }
+
+    public void deleteRecording(long id) {
+        Recording recording = getRecording(id);
+        Path file = recording.getDestination();
+        recording.close();
+        recordings.remove(id);
+        profiles.remove(id);
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete recording file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Finished recordings are discarded once past retention, and so are files left behind by earlier runs
+    @Scheduled(fixedDelayString = "${lms.diagnostics.retention-check-ms:3600000}")
+    public void deleteExpiredRecordings() {
+        Instant cutoff = Instant.now().minus(retention);
+        Set<Path> tracked = new HashSet<>();
+        for (Recording recording : List.copyOf(recordings.values())) {
+            Instant stopped = recording.getStopTime();
+            if (!isActive(recording) && stopped != null && stopped.isBefore(cutoff)) {
+                log.info("Deleting JFR recording {} past retention", recording.getId());
+                deleteRecording(recording.getId());
+            } else if (recording.getDestination() != null) {
+                tracked.add(recording.getDestination().toAbsolutePath());
+            }
+        }
+        if (!Files.isDirectory(recordingDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(recordingDir, "*.jfr")) {
+            for (Path file : files) {
+                if (!tracked.contains(file.toAbsolutePath())
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    log.info("Deleting JFR recording file {} past retention", file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up JFR recordings in {}: {}", recordingDir, e.getMessage());
+        }
+    }
+
+    public synchronized void startLiveSummary(int durationSeconds) {
+        checkDuration(durationSeconds);
+        closeLiveStream();
+
+        LiveWindow window = new LiveWindow(Instant.now());
+        RecordingStream stream = new RecordingStream();
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", "150/s").withStackTrace();
+        stream.enable("jdk.JavaMonitorEnter").withThreshold(contentionThreshold).withStackTrace();
+        stream.enable("jdk.ThreadPark").withThreshold(contentionThreshold).withStackTrace();
+        stream.enable("jdk.GarbageCollection");
+        stream.onEvent("jdk.ObjectAllocationSample", window::onAllocation);
+        stream.onEvent("jdk.JavaMonitorEnter", event -> window.onContention(event, "monitorClass"));
+        stream.onEvent("jdk.ThreadPark", window::onPark);
+        stream.onEvent("jdk.GarbageCollection", window::onGarbageCollection);
+        stream.startAsync();
+
+        liveStream = stream;
+        liveWindow = window;
+        taskScheduler.schedule(() -> stopLiveSummary(stream), Instant.now().plusSeconds(durationSeconds));
+    }
+
+    public synchronized void stopLiveSummary() {
+        closeLiveStream();
+    }
+
+    // The last window stays readable after its stream closes; pool waits are tracked all the time
+    public synchronized DiagnosticsSummary getSummary() {
+        List<DiagnosticsSummary.PoolWaitStats> pools = poolMetrics.snapshot();
+        if (liveWindow == null) {
+            return new DiagnosticsSummary(null, null, false, List.of(), List.of(),
+                    new DiagnosticsSummary.GcStats(0, 0, 0), pools);
+        }
+        return liveWindow.summarize(liveStream != null, topSites, pools);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeLiveStream();
+        recordings.values().forEach(Recording::close);
+    }
+
+    private synchronized void stopLiveSummary(RecordingStream stream) {
+        if (liveStream == stream) {
+            closeLiveStream();
+        }
+    }
+
+    private void closeLiveStream() {
+        if (liveStream != null) {
+            liveStream.close();
+            liveWindow.end = Instant.now();
+            liveStream = null;
+        }
+    }
+
+    private static boolean isActive(Recording recording) {
+        return recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED;
+    }
+
+    private Recording getRecording(long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No recording with id " + id);
+        }
+        return recording;
+    }
+
+    private void checkDuration(int durationSeconds) {
+        if (durationSeconds <= 0 || durationSeconds > maxDurationSeconds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+    }
+
+    private JfrRecordingInfo toInfo(Recording recording) {
+        Duration duration = recording.getDuration();
+        return new JfrRecordingInfo(
+            recording.getId(),
+            recording.getName(),
+            profiles.get(recording.getId()),
+            recording.getState().name(),
+            recording.getStartTime(),
+            duration == null ? 0 : duration.toSeconds(),
+            recording.getSize()
+        );
+    }
+
+    // Events arrive on the stream's own thread; summaries are read from request threads
+    private static class LiveWindow {
+        private final Instant start;
+        private volatile Instant end;
+        private final SiteTable allocations = new SiteTable(MAX_TRACKED_SITES);
+        private final SiteTable contention = new SiteTable(MAX_TRACKED_SITES);
+        private long collections;
+        private long totalPauseNanos;
+        private long maxPauseNanos;
+
+        LiveWindow(Instant start) {
+            this.start = start;
+        }
+
+        synchronized void onAllocation(RecordedEvent event) {
+            String type = event.getClass("objectClass") != null ? event.getClass("objectClass").getName() : "?";
+            allocations.add(type + " @ " + site(event.getStackTrace()), event.getLong("weight"), 0);
+        }
+
+        synchronized void onContention(RecordedEvent event, String classField) {
+            String lock = event.getClass(classField) != null ? event.getClass(classField).getName() : "?";
+            contention.add(lock + " @ " + site(event.getStackTrace()), event.getDuration().toMillis(),
+                    event.getDuration().toMillis());
+        }
+
+        // Idle pool threads park far longer than any lock wait, so only parks inside application code count.
+        // A park whose blocker is an application class is the code's own idle wait, like the audit writer's.
+        synchronized void onPark(RecordedEvent event) {
+            String blocker = event.getClass("parkedClass") != null ? event.getClass("parkedClass").getName() : "?";
+            if (blocker.startsWith(APPLICATION_PACKAGE) || applicationFrame(event.getStackTrace()) == null) {
+                return;
+            }
+            onContention(event, "parkedClass");
+        }
+
+        synchronized void onGarbageCollection(RecordedEvent event) {
+            collections++;
+            totalPauseNanos += event.getDuration("sumOfPauses").toNanos();
+            maxPauseNanos = Math.max(maxPauseNanos, event.getDuration("longestPause").toNanos());
+        }
+
+        synchronized DiagnosticsSummary summarize(boolean live, int limit, List<DiagnosticsSummary.PoolWaitStats> pools) {
+            return new DiagnosticsSummary(
+                start,
+                end,
+                live,
+                allocations.top(limit),
+                contention.top(limit),
+                new DiagnosticsSummary.GcStats(collections, totalPauseNanos / 1_000_000.0, maxPauseNanos / 1_000_000.0),
+                pools
+            );
+        }
+
+        // Prefers the innermost application frame, which is what points at the search or borrow path
+        private static String site(RecordedStackTrace stackTrace) {
+            if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+                return "(no stack)";
+            }
+            RecordedFrame applicationFrame = applicationFrame(stackTrace);
+            RecordedFrame chosen = applicationFrame != null ? applicationFrame : stackTrace.getFrames().get(0);
+            return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName()
+                    + ":" + chosen.getLineNumber();
+        }
+
+        private static RecordedFrame applicationFrame(RecordedStackTrace stackTrace) {
+            if (stackTrace == null) {
+                return null;
+            }
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Per site: events, summed weight, max single value. Sites past the cap share one "(other)" row.
+    static class SiteTable {
+        static final String OTHER = "(other)";
+
+        private final int maxSites;
+        private final Map<String, long[]> sites = new HashMap<>();
+
+        SiteTable(int maxSites) {
+            this.maxSites = maxSites;
+        }
+
+        void add(String key, long weight, long max) {
+            long[] totals = sites.get(key);
+            if (totals == null) {
+                if (sites.size() >= maxSites) {
+                    key = OTHER;
+                }
+                totals = sites.computeIfAbsent(key, k -> new long[3]);
+            }
+            totals[0]++;
+            totals[1] += weight;
+            totals[2] = Math.max(totals[2], max);
+        }
+
+        List<DiagnosticsSummary.Site> top(int limit) {
+            return sites.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+                    .limit(limit)
+                    .map(e -> new DiagnosticsSummary.Site(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2]))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.lms.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OverdueSweepJob {
+
+    private final BookBorrowingService borrowingService;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Scheduled(cron = "${lms.borrowing.overdue-cron:0 0 * * * *}")
+    public void run() {
+        if (clusterCoordinator.isLeader("overdue-sweep")) {
+            borrowingService.checkOverdueBorrowings();
+        }
+    }
+}
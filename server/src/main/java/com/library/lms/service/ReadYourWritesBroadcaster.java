@@ -0,0 +1,29 @@
+package com.library.lms.service;
+
+import com.library.lms.config.ReadYourWritesTracker;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+// Shares read-your-writes pins between instances. The tracker itself sits below the datasource and cannot
+// reach the event table, so writers go through here. Other instances pin the user once they poll the event,
+// which leaves a window of one poll interval where a read elsewhere can still reach the replica.
+@Service
+@RequiredArgsConstructor
+public class ReadYourWritesBroadcaster {
+
+    private static final String USER_WROTE_EVENT = "datasource.user-wrote";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @PostConstruct
+    public void subscribeToClusterEvents() {
+        clusterCoordinator.subscribe(USER_WROTE_EVENT, payload -> readYourWritesTracker.markWrite(Long.valueOf(payload)));
+    }
+
+    public void markWrite(Long userId) {
+        readYourWritesTracker.markWrite(userId);
+        clusterCoordinator.publish(USER_WROTE_EVENT, userId.toString());
+    }
+}
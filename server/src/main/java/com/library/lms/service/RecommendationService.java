@@ -0,0 +1,261 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.repository.BookBorrowingArchiveRepository;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.util.CoOccurrenceMatrix;
+import com.library.lms.util.LongObjectHashMap;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+    private static final String BORROW_RECORDED_EVENT = "recommendations.borrow-recorded";
+    private static final int HISTORIES_PER_TASK = 512;
+    private static final int ID_BITS = 32;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    private final BookBorrowingRepository borrowingRepository;
+    private final BookBorrowingArchiveRepository archiveRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Value("${lms.recommendations.max-limit:20}")
+    private int maxLimit;
+
+    private final Object updateLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    // Replaced together under updateLock; readers only touch the matrix, which has its own lock
+    private volatile CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+    private LongObjectHashMap<long[]> userHistories = new LongObjectHashMap<>();
+    // Borrows applied during a rebuild, replayed onto the new snapshot before it is swapped in
+    private List<long[]> pendingBorrows;
+
+    @Transactional(readOnly = true)
+    public List<Book> getRelatedBooks(Long bookId, int limit) {
+        long[] relatedIds = matrix.topK(bookId, Math.min(Math.max(limit, 1), maxLimit));
+        if (relatedIds.length == 0) {
+            return List.of();
+        }
+        List<Long> ids = Arrays.stream(relatedIds).boxed().toList();
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(book -> book != null)
+                .toList();
+    }
+
+    @PostConstruct
+    public void subscribeToClusterEvents() {
+        clusterCoordinator.subscribe(BORROW_RECORDED_EVENT, payload -> {
+            String[] ids = payload.split(":");
+            applyBorrow(Long.parseLong(ids[0]), Long.parseLong(ids[1]));
+        });
+    }
+
+    // Applied after commit so a rolled-back borrow never reaches the shared counts. The co-borrowed set
+    // comes from the in-memory history index rather than the database; other instances apply the same
+    // update when they poll the event.
+    public void recordBorrow(Long userId, Long bookId) {
+        clusterCoordinator.publish(BORROW_RECORDED_EVENT, userId + ":" + bookId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyBorrow(userId, bookId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyBorrow(userId, bookId);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${lms.recommendations.rebuild-cron:0 0 3 * * *}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (updateLock) {
+                pendingBorrows = new ArrayList<>();
+            }
+            try {
+                LongObjectHashMap<long[]> loaded = loadHistories();
+                long[][] histories = multiTitleHistories(loaded);
+
+                CoOccurrenceMatrix built;
+                ForkJoinPool pool = new ForkJoinPool();
+                try {
+                    built = pool.invoke(new BuildTask(histories, 0, histories.length));
+                } finally {
+                    pool.shutdown();
+                }
+
+                // Borrows committed while the snapshot was loading may or may not be in it; the history
+                // check in addBorrow skips the ones it already counted
+                synchronized (updateLock) {
+                    for (long[] borrow : pendingBorrows) {
+                        addBorrow(built, loaded, borrow[0], borrow[1]);
+                    }
+                    matrix = built;
+                    userHistories = loaded;
+                }
+                log.info("Rebuilt co-borrow matrix for {} books from {} user histories in {} ms",
+                        built.size(), histories.length, System.currentTimeMillis() - start);
+            } finally {
+                synchronized (updateLock) {
+                    pendingBorrows = null;
+                }
+            }
+        }
+    }
+
+    private void applyBorrow(long userId, long bookId) {
+        synchronized (updateLock) {
+            if (pendingBorrows != null) {
+                pendingBorrows.add(new long[]{userId, bookId});
+            }
+            addBorrow(matrix, userHistories, userId, bookId);
+        }
+    }
+
+    // Histories are kept sorted so membership is a binary search and a repeat borrow adds nothing
+    private static void addBorrow(CoOccurrenceMatrix matrix, LongObjectHashMap<long[]> histories,
+                                  long userId, long bookId) {
+        long[] previous = histories.get(userId);
+        if (previous == null) {
+            histories.put(userId, new long[]{bookId});
+            return;
+        }
+        int at = Arrays.binarySearch(previous, bookId);
+        if (at >= 0) {
+            return;
+        }
+        matrix.addPairs(bookId, previous);
+        int insertAt = -at - 1;
+        long[] updated = new long[previous.length + 1];
+        System.arraycopy(previous, 0, updated, 0, insertAt);
+        updated[insertAt] = bookId;
+        System.arraycopy(previous, insertAt, updated, insertAt + 1, previous.length - insertAt);
+        histories.put(userId, updated);
+    }
+
+    // Each (user, book) pair is packed into one long so the whole snapshot sorts as a primitive array
+    // and groups by user without boxing
+    private LongObjectHashMap<long[]> loadHistories() {
+        PackedPairs pairs = new PackedPairs();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> active = borrowingRepository.streamUserBookPairs()) {
+                active.forEach(pairs::add);
+            }
+            try (Stream<Object[]> archived = archiveRepository.streamUserBookPairs()) {
+                archived.forEach(pairs::add);
+            }
+        });
+        long[] sorted = pairs.values;
+        int size = pairs.size;
+        Arrays.sort(sorted, 0, size);
+
+        LongObjectHashMap<long[]> histories = new LongObjectHashMap<>();
+        int i = 0;
+        while (i < size) {
+            long userId = sorted[i] >>> ID_BITS;
+            long[] books = new long[8];
+            int n = 0;
+            for (; i < size && sorted[i] >>> ID_BITS == userId; i++) {
+                long bookId = sorted[i] & ID_MASK;
+                if (n == 0 || books[n - 1] != bookId) {
+                    if (n == books.length) {
+                        books = Arrays.copyOf(books, n * 2);
+                    }
+                    books[n++] = bookId;
+                }
+            }
+            histories.put(userId, Arrays.copyOf(books, n));
+        }
+        return histories;
+    }
+
+    private static long[][] multiTitleHistories(LongObjectHashMap<long[]> histories) {
+        List<long[]> result = new ArrayList<>(histories.size());
+        histories.forEach((userId, books) -> {
+            if (books.length > 1) {
+                result.add(books);
+            }
+        });
+        return result.toArray(long[][]::new);
+    }
+
+    private static class PackedPairs {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(Object[] pair) {
+            long userId = (Long) pair[0];
+            long bookId = (Long) pair[1];
+            if (userId > ID_MASK || bookId > ID_MASK) {
+                throw new IllegalStateException("Ids above 2^32 cannot be packed for the co-borrow rebuild");
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = userId << ID_BITS | bookId;
+        }
+    }
+
+    private static class BuildTask extends RecursiveTask<CoOccurrenceMatrix> {
+        private final long[][] histories;
+        private final int from;
+        private final int to;
+
+        BuildTask(long[][] histories, int from, int to) {
+            this.histories = histories;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CoOccurrenceMatrix compute() {
+            if (to - from <= HISTORIES_PER_TASK) {
+                CoOccurrenceMatrix partial = new CoOccurrenceMatrix();
+                for (int i = from; i < to; i++) {
+                    partial.addHistory(histories[i]);
+                }
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            BuildTask left = new BuildTask(histories, from, mid);
+            left.fork();
+            CoOccurrenceMatrix right = new BuildTask(histories, mid, to).compute();
+            CoOccurrenceMatrix merged = left.join();
+            merged.mergeFrom(right);
+            return merged;
+        }
+    }
+}
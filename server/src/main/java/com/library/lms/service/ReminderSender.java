@@ -0,0 +1,31 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.DueReminderItem;
+import com.library.lms.dto.ReminderDigest;
+
+import java.time.format.DateTimeFormatter;
+
+// Delivery channel for due-date reminders, chosen with lms.reminders.sender
+public interface ReminderSender {
+
+    DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // Throwing marks the attempt as failed; the pipeline retries and only logs the digest once this returns
+    void send(ReminderDigest digest) throws Exception;
+
+    static String subject(ReminderDigest digest) {
+        int count = digest.getItems().size();
+        return count == 1 ? "1 library book is due soon" : count + " library books are due soon";
+    }
+
+    static String body(ReminderDigest digest) {
+        StringBuilder body = new StringBuilder()
+            .append("Hello ").append(digest.getUsername()).append(",\n\n")
+            .append("The following books are due back soon:\n\n");
+        for (DueReminderItem item : digest.getItems()) {
+            body.append("  - ").append(item.getBookTitle())
+                .append(" (due ").append(DUE_DATE_FORMAT.format(item.getDueDate())).append(")\n");
+        }
+        return body.append("\nPlease return or renew them before the due date to avoid fines.\n").toString();
+    }
+}
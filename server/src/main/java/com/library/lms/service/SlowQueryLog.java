@@ -0,0 +1,82 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.SlowQueryEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class SlowQueryLog {
+
+    public static final String REQUEST_ID_KEY = "requestId";
+    public static final String HANDLER_KEY = "handler";
+
+    private static final String REDACTED = "[redacted]";
+
+    private final long thresholdNanos;
+    private final boolean includeBindValues;
+    private final SlowQueryEntry[] recent;
+    private int next;
+
+    public SlowQueryLog(
+            @Value("${lms.slow-query.threshold-ms:200}") long thresholdMs,
+            @Value("${lms.slow-query.buffer-size:100}") int bufferSize,
+            @Value("${lms.slow-query.include-bind-values:false}") boolean includeBindValues) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.includeBindValues = includeBindValues;
+        this.recent = new SlowQueryEntry[bufferSize];
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    // Only reached for statements over the threshold, so the lock is off the common path. Bind values can
+    // carry personal data, so they are redacted unless lms.slow-query.include-bind-values is set.
+    public void record(long elapsedNanos, String sql, Supplier<String> bindValues, long rowCount) {
+        SlowQueryEntry entry = new SlowQueryEntry(
+            Instant.now(),
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            sql,
+            includeBindValues ? bindValues.get() : REDACTED,
+            rowCount,
+            MDC.get(REQUEST_ID_KEY),
+            MDC.get(HANDLER_KEY)
+        );
+        log.warn("Slow query {} ms, rows={}, request={}, handler={}: {} {}",
+                entry.getDurationMs(), rowCount, entry.getRequestId(), entry.getHandler(), sql, entry.getBindValues());
+        synchronized (recent) {
+            recent[next] = entry;
+            next = (next + 1) % recent.length;
+        }
+    }
+
+    public List<SlowQueryEntry> getSlowest(int limit) {
+        SlowQueryEntry[] snapshot;
+        synchronized (recent) {
+            snapshot = recent.clone();
+        }
+        return Arrays.stream(snapshot)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingLong(SlowQueryEntry::getDurationMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            Arrays.fill(recent, null);
+            next = 0;
+        }
+    }
+}
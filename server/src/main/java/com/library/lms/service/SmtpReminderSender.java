@@ -0,0 +1,24 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.ReminderDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+// Sends digests through the SMTP server configured with spring.mail.* (a local stand-in such as MailHog works for tests)
+@RequiredArgsConstructor
+public class SmtpReminderSender implements ReminderSender {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    @Override
+    public void send(ReminderDigest digest) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(digest.getEmail());
+        message.setSubject(ReminderSender.subject(digest));
+        message.setText(ReminderSender.body(digest));
+        mailSender.send(message);
+    }
+}
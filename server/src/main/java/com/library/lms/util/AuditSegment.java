@@ -0,0 +1,171 @@
+package com.library.lms.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+// One audit log file: a 16-byte header, then records of [length, crc32, payload]. A zero length marks the end.
+// Only the active segment is mapped for writing, and only by the single audit writer thread.
+public class AuditSegment {
+
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_PREFIX = 8;
+
+    private static final int MAGIC = 0x4C4D5341;
+    private static final int VERSION = 1;
+
+    private final Path path;
+    private final long createdAt;
+    private MappedByteBuffer buffer;
+    private int usedBytes;
+    private int forcedBytes;
+
+    private AuditSegment(Path path, long createdAt, MappedByteBuffer buffer, int usedBytes) {
+        this.path = path;
+        this.createdAt = createdAt;
+        this.buffer = buffer;
+        this.usedBytes = usedBytes;
+        this.forcedBytes = usedBytes;
+    }
+
+    public static String fileName(long createdAt) {
+        return String.format("audit-%013d.seg", createdAt);
+    }
+
+    public static AuditSegment create(Path dir, long createdAt, int size) throws IOException {
+        Path path = dir.resolve(fileName(createdAt));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, createdAt);
+            buffer.force();
+            return new AuditSegment(path, createdAt, buffer, HEADER_SIZE);
+        }
+    }
+
+    // Recovers an existing file; the write position is the end of the last intact record
+    public static AuditSegment open(Path path, boolean forAppend, int size) throws IOException {
+        try (FileChannel channel = forAppend
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = forAppend
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()))
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an audit segment: " + path);
+            }
+            int used = scan(buffer, record -> true);
+            if (forAppend) {
+                // Clear a torn record left by a crash so it cannot be mistaken for data later
+                buffer.putInt(used, 0);
+            }
+            return new AuditSegment(path, buffer.getLong(8), forAppend ? buffer : null, used);
+        }
+    }
+
+    // The record holds [length placeholder, crc, payload]; returns false when the segment is full
+    public boolean append(ByteBuffer record) {
+        int length = record.remaining();
+        if (usedBytes + length + 4 > buffer.capacity()) {
+            return false;
+        }
+        int start = usedBytes;
+        // Length goes in last, so readers never see a length for bytes that are not there yet
+        buffer.put(start + 4, record, record.position() + 4, length - 4);
+        buffer.putInt(start, length);
+        usedBytes += length;
+        return true;
+    }
+
+    // Flushes everything appended since the last call with a single msync
+    public void force() {
+        if (buffer != null && usedBytes > forcedBytes) {
+            buffer.force(forcedBytes, usedBytes - forcedBytes);
+            forcedBytes = usedBytes;
+        }
+    }
+
+    public void seal() {
+        force();
+        buffer = null;
+    }
+
+    // Maps the file read-only, so this also works on the active segment while the writer appends
+    public void scan(Predicate<ByteBuffer> visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), visitor);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getUsedBytes() {
+        return usedBytes;
+    }
+
+    // Writes the records of consecutive sealed segments into one file sized to fit them exactly
+    public static AuditSegment writeCompacted(Path target, List<AuditSegment> sources) throws IOException {
+        long createdAt = sources.get(0).getCreatedAt();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(createdAt).flip();
+        int used = HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(header);
+            for (AuditSegment source : sources) {
+                try (FileChannel in = FileChannel.open(source.getPath(), StandardOpenOption.READ)) {
+                    long count = source.getUsedBytes() - HEADER_SIZE;
+                    long copied = 0;
+                    while (copied < count) {
+                        copied += in.transferTo(HEADER_SIZE + copied, count - copied, out);
+                    }
+                }
+                used += source.getUsedBytes() - HEADER_SIZE;
+            }
+            out.force(true);
+        }
+        return new AuditSegment(target, createdAt, null, used);
+    }
+
+    public static AuditSegment sealed(Path path, long createdAt, int usedBytes) {
+        return new AuditSegment(path, createdAt, null, usedBytes);
+    }
+
+    // Visits intact records with the buffer positioned at the payload; returns the offset after the last one visited
+    private static int scan(ByteBuffer buffer, Predicate<ByteBuffer> visitor) {
+        CRC32 crc = new CRC32();
+        int position = HEADER_SIZE;
+        while (position + RECORD_PREFIX <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_PREFIX || position + length > buffer.limit()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(position + RECORD_PREFIX, length - RECORD_PREFIX);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            position += length;
+            if (!visitor.test(payload)) {
+                break;
+            }
+        }
+        return position;
+    }
+}
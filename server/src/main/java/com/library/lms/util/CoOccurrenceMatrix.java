@@ -0,0 +1,90 @@
+package com.library.lms.util;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Sparse symmetric item-to-item co-occurrence counts keyed by book id
+public class CoOccurrenceMatrix {
+
+    private final LongObjectHashMap<LongIntHashMap> rows = new LongObjectHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void addHistory(long[] bookIds) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < bookIds.length; i++) {
+                for (int j = i + 1; j < bookIds.length; j++) {
+                    incrementPair(bookIds[i], bookIds[j], 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addPairs(long bookId, long[] coBorrowedIds) {
+        lock.writeLock().lock();
+        try {
+            for (long other : coBorrowedIds) {
+                if (other != bookId) {
+                    incrementPair(bookId, other, 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void mergeFrom(CoOccurrenceMatrix other) {
+        lock.writeLock().lock();
+        try {
+            other.rows.forEach((bookId, row) -> {
+                LongIntHashMap target = rows.computeIfAbsent(bookId, k -> new LongIntHashMap());
+                row.forEach(target::addTo);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] topK(long bookId, int k) {
+        lock.readLock().lock();
+        try {
+            LongIntHashMap row = rows.get(bookId);
+            if (row == null || k <= 0) {
+                return new long[0];
+            }
+            // Min-heap on (count, then higher id first) so the weakest candidate is evicted
+            PriorityQueue<long[]> heap = new PriorityQueue<>(k + 1, (a, b) ->
+                    a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+            row.forEach((otherId, count) -> {
+                heap.offer(new long[]{otherId, count});
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            });
+            long[] result = new long[heap.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = heap.poll()[0];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void incrementPair(long a, long b, int delta) {
+        rows.computeIfAbsent(a, k -> new LongIntHashMap()).addTo(b, delta);
+        rows.computeIfAbsent(b, k -> new LongIntHashMap()).addTo(a, delta);
+    }
+}
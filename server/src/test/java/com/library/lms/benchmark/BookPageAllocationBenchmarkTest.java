@@ -0,0 +1,191 @@
+package com.library.lms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.lms.dto.PageResponse;
+import com.library.lms.model.Book;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.service.BookPageStreamer;
+import com.library.lms.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// What one response keeps alive while it is being written, for a small and a large page, streamed versus buffered.
+// Bytes allocated necessarily grow with the rows written, so they are reported per row; what streaming keeps flat is
+// the rows held. Those are counted as live Book instances in a class histogram, which unlike heap usage is not moved
+// by the other contexts the test JVM keeps running.
+@ActiveProfiles("test")
+@SpringBootTest
+class BookPageAllocationBenchmarkTest {
+
+    private static final int SMALL_PAGE = 200;
+    private static final int LARGE_PAGE = 2_000;
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final int MEASURED_ITERATIONS = 50;
+    private static final int HELD_SAMPLES = 3;
+    // The row being written, and whatever the persistence context has not let go of yet
+    private static final long FLAT_TOLERANCE_ROWS = 8;
+
+    @Autowired
+    private BookPageStreamer bookPageStreamer;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<Book> seeded = List.of();
+
+    @AfterEach
+    void deleteSeeded() {
+        bookRepository.deleteAll(seeded);
+    }
+
+    @Test
+    void streamedResponsesHoldTheSameHeapAtAnyPageSize() throws IOException {
+        seeded = bookRepository.saveAll(books());
+
+        long streamedSmall = measure("streamed", SMALL_PAGE, this::streamed);
+        long streamedLarge = measure("streamed", LARGE_PAGE, this::streamed);
+        long bufferedSmall = measure("buffered", SMALL_PAGE, this::buffered);
+        long bufferedLarge = measure("buffered", LARGE_PAGE, this::buffered);
+
+        System.out.printf("%-24s streamed=%d -> %d rows  buffered=%d -> %d rows%n", "held " + SMALL_PAGE + " -> "
+                + LARGE_PAGE, streamedSmall, streamedLarge, bufferedSmall, bufferedLarge);
+        assertTrue(Math.abs(streamedLarge - streamedSmall) <= FLAT_TOLERANCE_ROWS,
+                "a streamed response should hold the same rows for ten times the page");
+        assertTrue(bufferedLarge - bufferedSmall >= (LARGE_PAGE - SMALL_PAGE) / 2,
+                "a buffered response should grow with the page, or this benchmark cannot tell the paths apart");
+    }
+
+    private void streamed(Pageable pageable, OutputStream out) throws IOException {
+        bookPageStreamer.writePage(null, pageable, () -> out);
+    }
+
+    private void buffered(Pageable pageable, OutputStream out) throws IOException {
+        objectMapper.writeValue(out, PageResponse.of(bookService.getAllBooks(pageable)));
+    }
+
+    // Prints latency and bytes allocated per row; returns the median rows held halfway through the body
+    private static long measure(String path, int pageSize, PageWriter writer) throws IOException {
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by("id"));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String name = path + " " + pageSize;
+
+        CountingStream sizing = new CountingStream(Long.MAX_VALUE);
+        writer.write(pageable, sizing);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            writer.write(pageable, OutputStream.nullOutputStream());
+        }
+
+        Timings timings = new Timings(name);
+        // Timings only ranks the samples; the values here are bytes, not nanoseconds
+        Timings allocations = new Timings(name);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            writer.write(pageable, OutputStream.nullOutputStream());
+            timings.record(System.nanoTime() - start);
+            allocations.record(threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        }
+
+        Timings held = new Timings(name);
+        for (int i = 0; i < HELD_SAMPLES; i++) {
+            long baseline = liveBooks();
+            CountingStream out = new CountingStream(sizing.written / 2);
+            writer.write(pageable, out);
+            held.record(out.liveAtSample - baseline);
+        }
+
+        System.out.println(timings.summary());
+        System.out.printf("%-24s allocated=%d B/row  held=%d rows%n",
+                name, allocations.percentileNanos(50) / pageSize, held.percentileNanos(50));
+        return held.percentileNanos(50);
+    }
+
+    // Live Book instances after a full GC, read from the same histogram jcmd GC.class_histogram prints
+    private static long liveBooks() {
+        try {
+            String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"), "gcClassHistogram",
+                    new Object[]{new String[0]}, new String[]{String[].class.getName()});
+            for (String line : histogram.split("\n")) {
+                // num: #instances #bytes class-name (module)
+                String[] columns = line.trim().split("\\s+");
+                if (columns.length >= 4 && columns[3].equals(Book.class.getName())) {
+                    return Long.parseLong(columns[1]);
+                }
+            }
+            return 0;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Book> books() {
+        List<Book> books = new ArrayList<>(LARGE_PAGE);
+        for (int i = 1; i <= LARGE_PAGE; i++) {
+            Book book = new Book();
+            book.setTitle("Allocation Sample, Volume " + i);
+            book.setAuthor("Author " + (i % 37));
+            book.setIsbn("alloc-978-0-" + (100_000 + i));
+            book.setDescription("A description long enough to resemble catalog data for book " + i);
+            book.setGenre(i % 2 == 0 ? "Fiction" : "History");
+            book.setPublisher("Publisher " + (i % 11));
+            book.setPublicationYear(1950 + i % 70);
+            book.setTotalCopies(3);
+            book.setAvailableCopies(i % 4);
+            books.add(book);
+        }
+        return books;
+    }
+
+    // Discards the body, counting live books once when it passes sampleAt bytes
+    private static final class CountingStream extends OutputStream {
+        private final long sampleAt;
+        private long written;
+        private long liveAtSample;
+
+        CountingStream(long sampleAt) {
+            this.sampleAt = sampleAt;
+        }
+
+        @Override
+        public void write(int b) {
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            advance(len);
+        }
+
+        private void advance(int bytes) {
+            if (written < sampleAt && written + bytes >= sampleAt) {
+                liveAtSample = liveBooks();
+            }
+            written += bytes;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageWriter {
+        void write(Pageable pageable, OutputStream out) throws IOException;
+    }
+}
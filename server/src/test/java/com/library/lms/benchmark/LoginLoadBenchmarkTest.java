@@ -0,0 +1,149 @@
+package com.library.lms.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Catalog-read p99 on its own and under a login flood several times what the hashing pool and its queue can hold.
+// One hashing thread and a queue of two keep the flood small enough for a test run while still overflowing it.
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "lms.rate-limit.enabled=false",
+                "lms.password-hashing.threads=1",
+                "lms.password-hashing.queue-capacity=2"
+        })
+class LoginLoadBenchmarkTest {
+
+    // Pool plus queue is three, so most of these are turned away at any moment
+    private static final int FLOOD_CLIENTS = 24;
+    private static final int READS = 300;
+    private static final int WARMUP_READS = 100;
+    // Still offers logins at many times the hashing rate, without rejected clients spinning on the test's CPU
+    private static final long REJECTED_PAUSE_MILLIS = 100;
+    // Reads share the CPU with the one hashing thread, so some slowdown is expected; queueing behind logins is not
+    private static final int P99_FACTOR = 4;
+    private static final long P99_MARGIN_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void catalogReadsHoldTheirLatencyWhileExcessLoginsAreRejected() throws Exception {
+        assertEquals(200, post("/api/auth/register",
+                "{\"username\":\"loaduser\",\"email\":\"loaduser@example.com\",\"password\":\"secretpassword\"}").statusCode());
+        String login = "{\"username\":\"loaduser\",\"password\":\"secretpassword\"}";
+        assertEquals(200, post("/api/auth/login", login).statusCode());
+
+        for (int i = 0; i < WARMUP_READS; i++) {
+            get("/api/books");
+        }
+        Timings baseline = reads("catalog read baseline");
+
+        Timings logins = new Timings("login during flood");
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger rejectedWithoutRetryAfter = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(FLOOD_CLIENTS);
+        CountDownLatch started = new CountDownLatch(FLOOD_CLIENTS);
+        Timings underFlood;
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int c = 0; c < FLOOD_CLIENTS; c++) {
+                clients.add(executor.submit(() -> {
+                    started.countDown();
+                    while (flooding.get()) {
+                        long begin = System.nanoTime();
+                        HttpResponse<Void> response = post("/api/auth/login", login);
+                        if (response.statusCode() == 200) {
+                            // Timings is not thread-safe
+                            synchronized (logins) {
+                                logins.record(System.nanoTime() - begin);
+                            }
+                            accepted.incrementAndGet();
+                        } else if (response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                            if (response.headers().firstValue("Retry-After").isEmpty()) {
+                                rejectedWithoutRetryAfter.incrementAndGet();
+                            }
+                            Thread.sleep(REJECTED_PAUSE_MILLIS);
+                        } else {
+                            unexpected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started.await();
+            underFlood = reads("catalog read under flood");
+            flooding.set(false);
+            for (Future<?> client : clients) {
+                client.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println(baseline.summary());
+        System.out.println(underFlood.summary());
+        synchronized (logins) {
+            System.out.println(logins.summary() + "  accepted=" + accepted.get() + "  rejected=" + rejected.get());
+        }
+
+        assertEquals(0, unexpected.get(), "a login under the flood should either succeed or be turned away with 503");
+        assertTrue(accepted.get() > 0, "the hashing pool should keep serving logins during the flood");
+        assertTrue(rejected.get() > 0, "a flood beyond pool plus queue should be answered with 503");
+        assertEquals(0, rejectedWithoutRetryAfter.get(), "every 503 should tell the client when to retry");
+        long bound = baseline.percentileNanos(99) * P99_FACTOR + P99_MARGIN_NANOS;
+        assertTrue(underFlood.percentileNanos(99) <= bound,
+                underFlood.summary() + " exceeds " + P99_FACTOR + "x the baseline p99 plus "
+                        + TimeUnit.NANOSECONDS.toMillis(P99_MARGIN_NANOS) + " ms");
+    }
+
+    private Timings reads(String name) throws Exception {
+        Timings timings = new Timings(name);
+        for (int i = 0; i < READS; i++) {
+            long begin = System.nanoTime();
+            assertEquals(200, get("/api/books"));
+            timings.record(System.nanoTime() - begin);
+        }
+        return timings;
+    }
+
+    private HttpResponse<Void> post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private int get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,89 @@
+package com.library.lms.benchmark;
+
+import com.library.lms.security.RateLimitFilter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Latency the rate limiter adds per request, with many clients and with every thread on one bucket
+class RateLimiterBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 20_000;
+    private static final FilterChain NO_OP = (request, response) -> { };
+    // A bucket lookup and one CAS measure around a microsecond; the bounds leave room for a loaded CI box
+    // while still failing on a lock or an allocation-heavy path
+    private static final long MAX_P50_OVERHEAD_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_P99_OVERHEAD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Test
+    void limiterOverheadStaysInMicroseconds() throws Exception {
+        RateLimitFilter disabled = new RateLimitFilter(false, 10, 120, 10);
+        RateLimitFilter enabled = new RateLimitFilter(true, 10, Integer.MAX_VALUE / 60, 10);
+
+        Timings baseline = run("disabled", disabled, false);
+        Timings distinctClients = run("enabled, per-client", enabled, false);
+        Timings sharedBucket = run("enabled, one bucket", enabled, true);
+
+        System.out.println(baseline.summary());
+        System.out.println(distinctClients.summary());
+        System.out.println(sharedBucket.summary());
+        System.out.println(distinctClients.overheadSummary(baseline));
+        System.out.println(sharedBucket.overheadSummary(baseline));
+        for (Timings limited : List.of(distinctClients, sharedBucket)) {
+            assertTrue(limited.overheadNanos(baseline, 50) < MAX_P50_OVERHEAD_NANOS, limited.overheadSummary(baseline));
+            assertTrue(limited.overheadNanos(baseline, 99) < MAX_P99_OVERHEAD_NANOS, limited.overheadSummary(baseline));
+        }
+    }
+
+    private static Timings run(String name, RateLimitFilter filter, boolean sharedClient) throws Exception {
+        measure(filter, sharedClient, new Timings("warmup"));
+        Timings timings = new Timings(name);
+        measure(filter, sharedClient, timings);
+        return timings;
+    }
+
+    private static void measure(RateLimitFilter filter, boolean sharedClient, Timings timings) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> {
+                    long[] elapsed = new long[REQUESTS_PER_THREAD];
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/search");
+                        request.setServletPath("/api/books/search");
+                        request.setRemoteAddr(sharedClient ? "10.0.0.1" : "10.0." + thread + "." + (i % 250));
+                        MockHttpServletResponse response = new MockHttpServletResponse();
+                        long begin = System.nanoTime();
+                        filter.doFilter(request, response, NO_OP);
+                        elapsed[i] = System.nanoTime() - begin;
+                    }
+                    return elapsed;
+                }));
+            }
+            start.countDown();
+            for (Future<long[]> worker : workers) {
+                for (long elapsed : worker.get(2, TimeUnit.MINUTES)) {
+                    timings.record(elapsed);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.library.lms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.lms.dto.PageResponse;
+import com.library.lms.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bytes on the wire and serialization time for one page of books in each response format
+@ActiveProfiles("test")
+@SpringBootTest
+class ResponseFormatBenchmarkTest {
+
+    private static final int PAGE_SIZE = 200;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1_000;
+
+    @Autowired
+    private ObjectMapper jsonMapper;
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    void compareFormats() throws IOException {
+        PageResponse<Book> page = PageResponse.of(new PageImpl<>(books(), PageRequest.of(0, PAGE_SIZE), 10_000));
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+
+        int jsonBytes = measure("json", () -> jsonMapper.writeValueAsBytes(page));
+        int cborBytes = measure("cbor", () -> cborMapper.writeValueAsBytes(page));
+        int gzipBytes = measure("json+gzip", () -> gzip(jsonMapper.writeValueAsBytes(page)));
+
+        System.out.printf("%-24s json=%d B  cbor=%d B  json+gzip=%d B%n", "page of " + PAGE_SIZE, jsonBytes, cborBytes, gzipBytes);
+        assertTrue(cborBytes < jsonBytes, "CBOR should be smaller than JSON");
+        assertTrue(gzipBytes < jsonBytes, "gzip should shrink JSON");
+    }
+
+    private static int measure(String format, Serializer serializer) throws IOException {
+        int size = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            size = serializer.serialize().length;
+        }
+        Timings timings = new Timings(format);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            size = serializer.serialize().length;
+            timings.record(System.nanoTime() - start);
+        }
+        System.out.println(timings.summary());
+        return size;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Book> books() {
+        List<Book> books = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Book book = new Book();
+            book.setId(id);
+            book.setBranchId("main");
+            book.setTitle("The Collected Works, Volume " + id);
+            book.setAuthor("Author " + (id % 37));
+            book.setIsbn("978-0-" + (100_000 + id));
+            book.setDescription("A description long enough to resemble catalog data for book " + id);
+            book.setGenre(id % 2 == 0 ? "Fiction" : "History");
+            book.setPublisher("Publisher " + (id % 11));
+            book.setPublicationYear(1950 + (int) (id % 70));
+            book.setTotalCopies(3);
+            book.setAvailableCopies((int) (id % 4));
+            books.add(book);
+        }
+        return books;
+    }
+
+    @FunctionalInterface
+    private interface Serializer {
+        byte[] serialize() throws IOException;
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.lms.benchmark;
+
+import com.library.lms.config.SlowQueryLoggingDataSource;
+import com.library.lms.service.SlowQueryLog;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Per-statement cost of the slow-query wrapper on a fast primary-key lookup, against the bare driver
+class SlowQueryOverheadBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    @Test
+    void wrapperOverheadOnFastStatements() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow-query-overhead;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(64))");
+            statement.execute("INSERT INTO item SELECT x, 'item ' || x FROM SYSTEM_RANGE(1, 1000)");
+        }
+        DataSource wrapped = new SlowQueryLoggingDataSource(h2, new SlowQueryLog(200, 100, false));
+
+        Timings bare = measure("bare driver", h2);
+        Timings logged = measure("slow-query wrapper", wrapped);
+
+        System.out.println(bare.summary());
+        System.out.println(logged.summary());
+        assertTrue(logged.percentileNanos(50) > 0);
+    }
+
+    private static Timings measure(String name, DataSource dataSource) throws Exception {
+        Timings timings = new Timings(name);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT name FROM item WHERE id = ?")) {
+            for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                statement.setLong(1, i % 1000 + 1);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    resultSet.getString(1);
+                }
+                if (i >= WARMUP_ITERATIONS) {
+                    timings.record(System.nanoTime() - start);
+                }
+            }
+        }
+        return timings;
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.lms.benchmark;
+
+import java.util.Arrays;
+
+// Collects per-operation latencies for the benchmark harnesses and reports percentiles
+final class Timings {
+
+    private final String name;
+    private long[] nanos = new long[1024];
+    private int count;
+
+    Timings(String name) {
+        this.name = name;
+    }
+
+    void record(long elapsedNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+    }
+
+    long percentileNanos(double percentile) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+
+    // What this run adds over a baseline run at the same percentile, e.g. the cost of a filter per request
+    long overheadNanos(Timings baseline, double percentile) {
+        return percentileNanos(percentile) - baseline.percentileNanos(percentile);
+    }
+
+    String overheadSummary(Timings baseline) {
+        return String.format("%-24s over %-12s p50=%+8.1f us  p99=%+8.1f us",
+                name, baseline.name, overheadNanos(baseline, 50) / 1_000.0, overheadNanos(baseline, 99) / 1_000.0);
+    }
+
+    String summary() {
+        return String.format("%-24s n=%-6d p50=%8.1f us  p99=%8.1f us  max=%8.1f us",
+                name, count, percentileNanos(50) / 1_000.0, percentileNanos(99) / 1_000.0,
+                percentileNanos(100) / 1_000.0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.lms.config;
+
+import com.library.lms.dto.DiagnosticsSummary;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolMetricsTest {
+
+    private final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+
+    @Test
+    void p99IsTheUpperBoundOfItsPowerOfTwoBucket() {
+        IMetricsTracker tracker = metrics.create("primary", stats(3, 7, 2));
+        for (int i = 0; i < 99; i++) {
+            // 100 us falls in the 64-128 us bucket
+            tracker.recordConnectionAcquiredNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        tracker.recordConnectionTimeout();
+
+        DiagnosticsSummary.PoolWaitStats stats = only();
+        assertEquals("primary", stats.getPool());
+        assertEquals(100, stats.getAcquisitions());
+        assertEquals(1, stats.getTimeouts());
+        assertEquals(0.128, stats.getP99WaitMs(), 1e-9);
+        assertEquals(50.0, stats.getMaxWaitMs(), 1e-9);
+        assertEquals((99 * 0.1 + 50) / 100, stats.getAverageWaitMs(), 1e-9);
+        assertEquals(3, stats.getActiveConnections());
+        assertEquals(7, stats.getIdleConnections());
+        assertEquals(2, stats.getPendingThreads());
+
+        // Two more slow waits push the 99th percentile into the 32-64 ms bucket
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(40));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(45));
+        assertEquals(65.536, only().getP99WaitMs(), 1e-9);
+    }
+
+    @Test
+    void subMicrosecondWaitsLandInTheFirstBucketAndAnEmptyPoolReportsZero() {
+        IMetricsTracker tracker = metrics.create("replica", stats(0, 0, 0));
+        assertEquals(0, only().getP99WaitMs());
+
+        tracker.recordConnectionAcquiredNanos(200);
+        assertEquals(0.002, only().getP99WaitMs(), 1e-9);
+    }
+
+    @Test
+    void eachPoolIsTrackedOnce() {
+        IMetricsTracker first = metrics.create("primary", stats(0, 0, 0));
+        IMetricsTracker again = metrics.create("primary", stats(0, 0, 0));
+        first.recordConnectionAcquiredNanos(1_000);
+        again.recordConnectionAcquiredNanos(1_000);
+        assertEquals(2, only().getAcquisitions());
+    }
+
+    private DiagnosticsSummary.PoolWaitStats only() {
+        assertEquals(1, metrics.snapshot().size());
+        return metrics.snapshot().get(0);
+    }
+
+    private static PoolStats stats(int active, int idle, int pending) {
+        return new PoolStats(0) {
+            @Override
+            protected void update() {
+                activeConnections = active;
+                idleConnections = idle;
+                pendingThreads = pending;
+            }
+        };
+    }
+}
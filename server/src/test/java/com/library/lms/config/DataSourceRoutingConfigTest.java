@@ -0,0 +1,59 @@
+package com.library.lms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A second in-memory H2 database stands in for the replica; it has no schema, which tells the two apart
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "lms.datasource.replica.url=jdbc:h2:mem:lms-replica-test;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "lms.datasource.replica.hikari.maximum-pool-size=3",
+        "lms.datasource.replica.hikari.connection-timeout=4000"
+})
+class DataSourceRoutingConfigTest {
+
+    private static final String COUNT_BOOK_TABLES =
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'BOOKS'";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primary;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replica;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void poolsBindTheirOwnHikariProperties() {
+        assertEquals(7, primary.getMaximumPoolSize());
+        assertEquals("primary", primary.getPoolName());
+        assertEquals(3, replica.getMaximumPoolSize());
+        assertEquals(4000, replica.getConnectionTimeout());
+        assertTrue(replica.isReadOnly());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        Integer onReplica = readOnly.execute(status -> jdbcTemplate.queryForObject(COUNT_BOOK_TABLES, Integer.class));
+        Integer onPrimary = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(COUNT_BOOK_TABLES, Integer.class));
+
+        assertEquals(0, onReplica);
+        assertEquals(1, onPrimary);
+    }
+}
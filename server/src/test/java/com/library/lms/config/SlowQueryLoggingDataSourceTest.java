@@ -0,0 +1,75 @@
+package com.library.lms.config;
+
+import com.library.lms.dto.SlowQueryEntry;
+import com.library.lms.service.SlowQueryLog;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLoggingDataSourceTest {
+
+    @Test
+    void bindValuesAreRedactedByDefault() throws Exception {
+        SlowQueryLog log = new SlowQueryLog(0, 10, false);
+        runLookup(log, "secret-value");
+
+        SlowQueryEntry entry = lookupEntry(log);
+        assertEquals("[redacted]", entry.getBindValues());
+    }
+
+    @Test
+    void bindValuesAreRecordedWhenEnabled() throws Exception {
+        SlowQueryLog log = new SlowQueryLog(0, 10, true);
+        runLookup(log, "visible-value");
+
+        assertTrue(lookupEntry(log).getBindValues().contains("visible-value"), lookupEntry(log).getBindValues());
+    }
+
+    @Test
+    void resultSetsAreNotWrappedAndFastStatementsAreNotRecorded() throws Exception {
+        SlowQueryLog log = new SlowQueryLog(60_000, 10, false);
+        try (Connection connection = dataSource(log, "unwrapped").getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertFalse(Proxy.isProxyClass(resultSet.getClass()));
+            }
+        }
+        assertTrue(log.getSlowest(10).isEmpty());
+    }
+
+    private static void runLookup(SlowQueryLog log, String value) throws Exception {
+        try (Connection connection = dataSource(log, value).getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS item (name VARCHAR(64))");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT name FROM item WHERE name = ?")) {
+                statement.setString(1, value);
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    private static SlowQueryEntry lookupEntry(SlowQueryLog log) {
+        List<SlowQueryEntry> entries = log.getSlowest(10);
+        return entries.stream()
+                .filter(entry -> entry.getSql().startsWith("SELECT name"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static SlowQueryLoggingDataSource dataSource(SlowQueryLog log, String name) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow-query-" + name + ";DB_CLOSE_DELAY=-1");
+        return new SlowQueryLoggingDataSource(h2, log);
+    }
+}
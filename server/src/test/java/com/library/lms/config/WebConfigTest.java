@@ -0,0 +1,43 @@
+package com.library.lms.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebConfigTest {
+
+    @Test
+    void lmsCompressionSettingsApplyWhenServerCompressionIsUnset() {
+        TomcatServletWebServerFactory factory = customize(new MockEnvironment(), new ServerProperties());
+
+        assertTrue(factory.getCompression().getEnabled());
+        assertEquals(DataSize.ofKilobytes(4), factory.getCompression().getMinResponseSize());
+        assertArrayEquals(new String[]{"application/json", "text/plain"}, factory.getCompression().getMimeTypes());
+    }
+
+    @Test
+    void serverCompressionSettingsWinWhereTheyAreSet() {
+        ServerProperties serverProperties = new ServerProperties();
+        serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(512));
+        MockEnvironment environment = new MockEnvironment().withProperty("server.compression.min-response-size", "512B");
+
+        TomcatServletWebServerFactory factory = customize(environment, serverProperties);
+
+        assertEquals(DataSize.ofBytes(512), factory.getCompression().getMinResponseSize());
+        assertTrue(factory.getCompression().getEnabled());
+    }
+
+    private static TomcatServletWebServerFactory customize(MockEnvironment environment, ServerProperties serverProperties) {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        new WebConfig()
+                .responseCompressionCustomizer(serverProperties, environment, true, DataSize.ofKilobytes(4))
+                .customize(factory);
+        return factory;
+    }
+}
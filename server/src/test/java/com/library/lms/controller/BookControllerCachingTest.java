@@ -0,0 +1,71 @@
+package com.library.lms.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerCachingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void jsonAndCborGetDifferentWeakTags() throws Exception {
+        String json = etagFor(MediaType.APPLICATION_JSON);
+        String cbor = etagFor(MediaType.APPLICATION_CBOR);
+
+        assertTrue(json.startsWith("W/"), json);
+        assertTrue(cbor.startsWith("W/"), cbor);
+        assertNotEquals(json, cbor);
+    }
+
+    @Test
+    void notModifiedCarriesTheSameVary() throws Exception {
+        String etag = etagFor(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(get("/api/books").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"));
+    }
+
+    @Test
+    void cborTagDoesNotRevalidateJson() throws Exception {
+        String cbor = etagFor(MediaType.APPLICATION_CBOR);
+
+        mockMvc.perform(get("/api/books").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void streamedPageCarriesTheTagAndVary() throws Exception {
+        String etag = etagFor(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(get("/api/books").param("size", "200").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(jsonPath("$.size").value(200));
+    }
+
+    private String etagFor(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/books").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.lms.security;
+
+import com.library.lms.config.BranchContext;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BranchResolutionFilterTest {
+
+    private final BranchResolutionFilter filter = new BranchResolutionFilter(
+            new BranchAccess(List.of("main", "east"), "main"));
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void memberCannotNameAnotherBranch() throws Exception {
+        signIn(Role.USER, "main");
+        MockHttpServletResponse response = run("/api/books", "east", new AtomicReference<>());
+        assertEquals(403, response.getStatus());
+    }
+
+    @Test
+    void adminMayNameAnyBranch() throws Exception {
+        signIn(Role.ADMIN, "main");
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockHttpServletResponse response = run("/api/books", "east", seen);
+        assertEquals(200, response.getStatus());
+        assertEquals("east", seen.get());
+    }
+
+    @Test
+    void ownBorrowingsSpanEveryBranchUnlessTheHeaderNarrowsThem() throws Exception {
+        signIn(Role.USER, "main");
+        AtomicReference<String> seen = new AtomicReference<>("unset");
+        run("/api/borrowings/my", null, seen);
+        assertNull(seen.get());
+
+        run("/api/borrowings/my", "main", seen);
+        assertEquals("main", seen.get());
+    }
+
+    private MockHttpServletResponse run(String path, String branchHeader, AtomicReference<String> seen)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (branchHeader != null) {
+            request.addHeader(BranchResolutionFilter.BRANCH_HEADER, branchHeader);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> seen.set(BranchContext.get()));
+        return response;
+    }
+
+    private void signIn(Role role, String homeBranch) {
+        User user = User.builder().username("branch-" + role).role(role).branchId(homeBranch).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.library.lms.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The test client connects from loopback, which the configuration below trusts as the proxy
+@ActiveProfiles("test")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "lms.rate-limit.search-per-minute=1",
+                "server.forward-headers-strategy=native",
+                "server.tomcat.remoteip.internal-proxies=127\\.0\\.0\\.1|0:0:0:0:0:0:0:1"
+        })
+class RateLimitFilterTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void anonymousClientsBehindATrustedProxyAreLimitedByTheirForwardedAddress() throws Exception {
+        assertNotEquals(429, search("203.0.113.7").statusCode());
+        HttpResponse<Void> limited = search("203.0.113.7");
+        assertEquals(429, limited.statusCode());
+        assertTrue(limited.headers().firstValue("Retry-After").isPresent());
+
+        // Same proxy, another client behind it
+        assertNotEquals(429, search("203.0.113.8").statusCode());
+    }
+
+    @Test
+    void limitsThatCannotRefillFailAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(true, 0, 120, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(true, 10, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(false, 10, 120, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, TimeUnit.MINUTES.toNanos(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0, 0));
+    }
+
+    private HttpResponse<Void> search(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books/search"))
+                .header("X-Forwarded-For", forwardedFor)
+                .GET()
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+}
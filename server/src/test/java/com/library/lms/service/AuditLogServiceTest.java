@@ -0,0 +1,239 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.AuditRecordDTO;
+import com.library.lms.model.AuditAction;
+import com.library.lms.util.AuditSegment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the service directly against a temporary directory; stopping it drains the writer, so a stop and a fresh
+// instance on the same directory is how these tests wait for records to land and prove they survive a restart.
+class AuditLogServiceTest {
+
+    private static final int SEGMENT_MB = 1;
+    private static final int RETENTION_DAYS = 365;
+    private static final int ALL = 100_000;
+
+    @TempDir
+    Path dir;
+
+    private final List<AuditLogService> started = new ArrayList<>();
+
+    @AfterEach
+    void stopAll() {
+        started.forEach(AuditLogService::stop);
+    }
+
+    @Test
+    void recordsRoundTripAcrossRotationAndRestart() throws IOException {
+        Path log = dir.resolve("log");
+        AuditLogService service = start(log);
+        // About 245 bytes each, so a 1 MB segment holds some 4,000 of them
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            service.record(AuditAction.BOOK_UPDATED, (long) i, null, detail(i));
+        }
+        service.stop();
+        assertTrue(files(log).size() >= 3, "the records should span several segments");
+
+        AuditLogService reopened = start(log);
+        reopened.record(AuditAction.BOOK_DELETED, (long) count, null, "after restart");
+        reopened.stop();
+
+        List<AuditRecordDTO> records = start(log).query(null, null, null, null, ALL);
+        assertEquals(count + 1, records.size());
+        for (int i = 0; i < count; i++) {
+            AuditRecordDTO record = records.get(i);
+            assertEquals(i, record.getEntityId());
+            assertEquals(AuditAction.BOOK_UPDATED, record.getAction());
+            assertEquals(detail(i), record.getDetail());
+            assertNull(record.getRelatedId());
+        }
+        assertEquals(AuditAction.BOOK_DELETED, records.get(count).getAction());
+        assertEquals("after restart", records.get(count).getDetail());
+    }
+
+    @Test
+    void restartAfterATornTailKeepsTheIntactRecordsAndAppendsAfterThem() throws IOException {
+        Path log = dir.resolve("log");
+        AuditLogService service = start(log);
+        for (long i = 1; i <= 3; i++) {
+            service.record(AuditAction.BOOK_ADDED, i, null, "book " + i);
+        }
+        service.stop();
+        Path active = files(log).get(files(log).size() - 1);
+        int intact = AuditSegment.open(active, false, SEGMENT_MB << 20).getUsedBytes();
+        try (FileChannel channel = FileChannel.open(active, StandardOpenOption.WRITE)) {
+            // A length that claims a record, then bytes whose checksum cannot match
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 64, 7, 7, 7, 7, 1, 2, 3}), intact);
+        }
+
+        AuditLogService reopened = start(log);
+        assertEquals(3, reopened.query(null, null, null, null, ALL).size());
+        reopened.record(AuditAction.BOOK_ADDED, 4L, null, "book 4");
+        reopened.stop();
+
+        List<Long> ids = start(log).query(null, null, null, null, ALL).stream().map(AuditRecordDTO::getEntityId).toList();
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids);
+    }
+
+    @Test
+    void queryFiltersByTimeEntityAndAction() throws Exception {
+        Path log = dir.resolve("log");
+        AuditLogService service = start(log);
+        service.record(AuditAction.BOOK_ADDED, 1L, null, "added");
+        service.record(AuditAction.BOOK_ADDED, 2L, null, "added");
+        service.record(AuditAction.BOOK_BORROWED, 100L, 1L, "borrowed");
+        Thread.sleep(20);
+        Instant between = Instant.now();
+        Thread.sleep(20);
+        service.record(AuditAction.BOOK_RETURNED, 100L, 1L, "returned");
+        service.record(AuditAction.BOOK_UPDATED, 2L, null, "updated");
+        service.stop();
+
+        AuditLogService reopened = start(log);
+        assertEquals(List.of("added", "added", "borrowed"), details(reopened.query(null, between, null, null, ALL)));
+        assertEquals(List.of("returned", "updated"), details(reopened.query(between, null, null, null, ALL)));
+        // A loan is found both by its own id and by the book it is for
+        assertEquals(List.of("added", "borrowed", "returned"), details(reopened.query(null, null, 1L, null, ALL)));
+        assertEquals(List.of("borrowed", "returned"), details(reopened.query(null, null, 100L, null, ALL)));
+        assertEquals(List.of("borrowed"), details(reopened.query(null, null, null, AuditAction.BOOK_BORROWED, ALL)));
+        assertEquals(List.of("updated"), details(reopened.query(between, null, 2L, AuditAction.BOOK_UPDATED, ALL)));
+        assertEquals(List.of("added", "added"), details(reopened.query(null, null, null, null, 2)));
+    }
+
+    @Test
+    void compactionDropsExpiredSegmentsAndMergesTheRestWhileQueriesRun() throws Exception {
+        Path log = dir.resolve("log");
+        Files.createDirectories(log);
+        long now = System.currentTimeMillis();
+        // Expired: the segment after it began before the retention cutoff
+        segment(log, now - days(RETENTION_DAYS + 35), 1L, 50);
+        segment(log, now - days(RETENTION_DAYS + 15), 2L, 50);
+        segment(log, now - days(10), 3L, 50);
+        AuditSegment.create(log, now, SEGMENT_MB << 20);
+        AuditLogService service = start(log);
+
+        AtomicBoolean querying = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch firstQuery = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try {
+                while (querying.get()) {
+                    List<AuditRecordDTO> records = service.query(null, null, null, null, ALL);
+                    long expired = count(records, 1L);
+                    // Every scan sees the segments either all before or all after compaction, never a mix
+                    assertTrue(expired == 0 || expired == 50, "expired records seen: " + expired);
+                    assertEquals(50, count(records, 2L));
+                    assertEquals(50, count(records, 3L));
+                    queries.incrementAndGet();
+                    firstQuery.countDown();
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+                firstQuery.countDown();
+            }
+        }, "audit-query");
+        reader.start();
+        assertTrue(firstQuery.await(30, TimeUnit.SECONDS));
+        service.compact();
+        int afterCompaction = queries.get();
+        while (queries.get() < afterCompaction + 3 && failure.get() == null && reader.isAlive()) {
+            Thread.sleep(5);
+        }
+        querying.set(false);
+        reader.join(TimeUnit.SECONDS.toMillis(30));
+        assertNull(failure.get(), () -> "query during compaction failed: " + failure.get());
+
+        List<AuditRecordDTO> records = service.query(null, null, null, null, ALL);
+        assertEquals(0, count(records, 1L));
+        assertEquals(100, records.size());
+        // The two kept segments are now one file, cut to its records, next to the untouched active segment
+        List<Path> files = files(log);
+        assertEquals(2, files.size());
+        assertEquals(AuditSegment.fileName(now - days(RETENTION_DAYS + 15)), files.get(0).getFileName().toString());
+        assertEquals(AuditSegment.open(files.get(0), false, SEGMENT_MB << 20).getUsedBytes(), Files.size(files.get(0)));
+
+        service.stop();
+        assertEquals(100, start(log).query(null, null, null, null, ALL).size());
+    }
+
+    @Test
+    void recordsAfterStopAreCountedAsDropped() {
+        AuditLogService service = start(dir.resolve("log"));
+        service.record(AuditAction.BOOK_ADDED, 1L, null, "written");
+        service.stop();
+        service.record(AuditAction.BOOK_ADDED, 2L, null, "too late");
+
+        assertEquals(1, service.getDroppedRecords());
+        assertEquals(List.of("written"), details(start(dir.resolve("log")).query(null, null, null, null, ALL)));
+    }
+
+    private AuditLogService start(Path directory) {
+        AuditLogService service = new AuditLogService(true, directory.toString(), SEGMENT_MB, 1024, false,
+                RETENTION_DAYS, 65_536);
+        service.start();
+        started.add(service);
+        return service;
+    }
+
+    // Writes records through a throwaway instance, then files its one segment under the given creation time
+    private void segment(Path log, long createdAt, long entityId, int records) throws IOException {
+        Path scratch = Files.createTempDirectory(dir, "scratch");
+        AuditLogService writer = start(scratch);
+        for (int i = 0; i < records; i++) {
+            writer.record(AuditAction.BOOK_UPDATED, entityId, null, "entity " + entityId);
+        }
+        writer.stop();
+        Path target = log.resolve(AuditSegment.fileName(createdAt));
+        Files.move(files(scratch).get(0), target);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, createdAt), 8);
+        }
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static long count(List<AuditRecordDTO> records, long entityId) {
+        return records.stream().filter(record -> record.getEntityId() == entityId).count();
+    }
+
+    private static List<String> details(List<AuditRecordDTO> records) {
+        return records.stream().map(AuditRecordDTO::getDetail).toList();
+    }
+
+    private static String detail(int i) {
+        return String.format("%-200s", "update " + i);
+    }
+
+    private static long days(int days) {
+        return Duration.ofDays(days).toMillis();
+    }
+}
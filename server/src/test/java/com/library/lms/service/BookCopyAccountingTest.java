@@ -0,0 +1,110 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BorrowingStatus;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookCopyRepository;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "lms.copies.backfill-batch-size=2")
+class BookCopyAccountingTest {
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookBorrowingService borrowingService;
+    @Autowired
+    private BookCopyService copyService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookCopyRepository copyRepository;
+    @Autowired
+    private BookBorrowingRepository borrowingRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void borrowAndReturnDeriveTheCounterFromCopies() {
+        User user = user("copies-borrower");
+        Book book = bookService.addBook(book("copies-title", 2, 2));
+        assertEquals(2, available(book));
+
+        BookBorrowing loan = borrowingService.borrowBook(user.getId(), book.getId());
+        assertEquals(1, available(book));
+
+        borrowingService.returnBook(loan.getId());
+        assertEquals(2, available(book));
+    }
+
+    @Test
+    void returnWithoutAFreedCopyLeavesTheCounterAlone() {
+        User user = user("copies-legacy");
+        Book book = bookService.addBook(book("copies-legacy-title", 1, 1));
+
+        // A loan from before copies were tracked, with no copy marked out for it
+        BookBorrowing loan = new BookBorrowing();
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setBorrowDate(LocalDateTime.now().minusDays(1));
+        loan.setDueDate(LocalDateTime.now().plusDays(13));
+        loan.setStatus(BorrowingStatus.BORROWED);
+        loan = borrowingRepository.save(loan);
+
+        borrowingService.returnBook(loan.getId());
+        assertEquals(1, available(book));
+    }
+
+    @Test
+    void backfillCreatesCopiesInBatches() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            books.add(bookRepository.save(book("backfill-" + i, 3, 2)));
+        }
+
+        copyService.backfillCopies();
+
+        for (Book book : books) {
+            assertEquals(3, copyRepository.countByBookId(book.getId()));
+            assertEquals(2, copyRepository.countAvailableByBookId(book.getId()));
+        }
+    }
+
+    private int available(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies();
+    }
+
+    private User user(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .role(Role.USER)
+                .build());
+    }
+
+    private static Book book(String title, int total, int available) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn("isbn-" + title);
+        book.setTotalCopies(total);
+        book.setAvailableCopies(available);
+        return book;
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.model.BookCopy;
+import com.library.lms.repository.BookCopyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookCopyServiceTest {
+
+    private final BookCopyRepository copyRepository = mock(BookCopyRepository.class);
+    private final BookCopyService copyService = new BookCopyService(copyRepository,
+            new CopyAvailabilityIndex(copyRepository), mock(ClusterCoordinator.class),
+            mock(TransactionTemplate.class), mock(TaskScheduler.class));
+
+    @Test
+    void borrowAndReturnTakeTheCounterFromTheIndexWithoutCounting() {
+        Book book = new Book();
+        book.setId(7L);
+        book.setAvailableCopies(2);
+        BookCopy copy = new BookCopy();
+        copy.setId(10L);
+        // Outside a transaction each change drops the index entry, so the return reloads it with copy 10 back in
+        when(copyRepository.findStatesByBookId(7L)).thenReturn(
+                List.of(new Object[]{10L, true}, new Object[]{11L, true}, new Object[]{12L, false}));
+        when(copyRepository.compareAndSetAvailable(10L, true, false)).thenReturn(1);
+        when(copyRepository.compareAndSetAvailable(10L, false, true)).thenReturn(1);
+        when(copyRepository.findById(10L)).thenReturn(Optional.of(copy));
+
+        assertEquals(copy, copyService.claimCopy(book));
+        assertEquals(1, book.getAvailableCopies());
+
+        copyService.releaseCopy(book, copy);
+        assertEquals(2, book.getAvailableCopies());
+
+        verify(copyRepository, never()).countAvailableByBookId(any());
+    }
+}
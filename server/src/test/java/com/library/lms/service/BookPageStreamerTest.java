@@ -0,0 +1,105 @@
+package com.library.lms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.lms.model.Book;
+import com.library.lms.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A fetch size of two makes every page span several fetches of the one cursor
+@ActiveProfiles("test")
+@SpringBootTest(properties = "lms.streaming.fetch-size=2")
+class BookPageStreamerTest {
+
+    private static final Specification<Book> SEEDED = (root, query, cb) -> cb.like(root.get("isbn"), "isbn-streamed-%");
+
+    @Autowired
+    private BookPageStreamer bookPageStreamer;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Book> seeded = new ArrayList<>();
+
+    @AfterEach
+    void deleteSeeded() {
+        bookRepository.deleteAll(seeded);
+    }
+
+    @Test
+    void queryFailuresSurfaceBeforeTheBodyIsOpened() {
+        AtomicBoolean opened = new AtomicBoolean();
+        assertThrows(RuntimeException.class, () -> bookPageStreamer.writePage(null,
+                PageRequest.of(0, 5, Sort.by("noSuchProperty")),
+                () -> {
+                    opened.set(true);
+                    return new ByteArrayOutputStream();
+                }));
+        assertFalse(opened.get());
+    }
+
+    @Test
+    void pageIsWrittenInOrderWithTheTotal() throws Exception {
+        seed(5);
+        JsonNode page = page(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id")));
+
+        List<Long> expected = seeded.stream().map(Book::getId).sorted((x, y) -> Long.compare(y, x)).toList();
+        assertEquals(expected, ids(page));
+        assertEquals(5, page.get("totalElements").asLong());
+    }
+
+    @Test
+    void idBreaksTiesSoPagesNeitherRepeatNorSkipRows() throws Exception {
+        seed(6);
+        // Every seeded book has the same author, so the requested sort alone leaves the order undefined
+        Sort byAuthor = Sort.by("author");
+        List<Long> walked = new ArrayList<>(ids(page(PageRequest.of(0, 3, byAuthor))));
+        walked.addAll(ids(page(PageRequest.of(1, 3, byAuthor))));
+
+        assertEquals(6, new HashSet<>(walked).size());
+        assertEquals(seeded.stream().map(Book::getId).sorted().toList(), walked);
+    }
+
+    private JsonNode page(Pageable pageable) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookPageStreamer.writePage(SEEDED, pageable, () -> out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("content").forEach(book -> ids.add(book.get("id").asLong()));
+        return ids;
+    }
+
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setTitle("Streamed " + i);
+            book.setAuthor("Author");
+            book.setIsbn("isbn-streamed-" + i);
+            book.setTotalCopies(1);
+            book.setAvailableCopies(1);
+            seeded.add(bookRepository.save(book));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BookBorrowingArchive;
+import com.library.lms.model.BorrowingStatus;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingArchiveRepository;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class BorrowingHistoryTest {
+
+    @Autowired
+    private BookBorrowingService borrowingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookBorrowingRepository borrowingRepository;
+    @Autowired
+    private BookBorrowingArchiveRepository archiveRepository;
+
+    @Test
+    void keysetPagesWalkBothTablesNewestFirst() {
+        User user = userRepository.save(User.builder()
+                .username("history-reader")
+                .email("history-reader@example.com")
+                .password("secret")
+                .role(Role.USER)
+                .build());
+        Book book = book();
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        // Equal borrow dates across the two tables leave the id tie-breaker to decide the page boundary
+        BookBorrowing sameDayActive = active(user, book, base);
+        archived(user, book, base, 9_000_001L);
+        archived(user, book, base, 9_000_002L);
+        BookBorrowing dayBefore = active(user, book, base.minusDays(1));
+        archived(user, book, base.minusDays(2), 9_000_003L);
+        List<Long> expected = List.of(9_000_002L, 9_000_001L, sameDayActive.getId(), dayBefore.getId(), 9_000_003L);
+
+        List<Long> walked = new ArrayList<>();
+        Page<BookBorrowing> page = borrowingService.getBorrowingHistory(user.getId(), null, null, PageRequest.of(0, 2));
+        assertEquals(5, page.getTotalElements());
+        while (!page.isEmpty()) {
+            page.forEach(borrowing -> walked.add(borrowing.getId()));
+            BookBorrowing last = page.getContent().get(page.getNumberOfElements() - 1);
+            page = borrowingService.getBorrowingHistory(user.getId(), last.getBorrowDate(), last.getId(),
+                    PageRequest.of(0, 2));
+        }
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void pageNumbersAndOtherSortsAreRejected() {
+        assertThrows(ResponseStatusException.class,
+                () -> borrowingService.getBorrowingHistory(1L, null, null, PageRequest.of(3, 2)));
+        assertThrows(ResponseStatusException.class,
+                () -> borrowingService.getBorrowingHistory(1L, null, null, PageRequest.of(0, 2, Sort.by("dueDate"))));
+        borrowingService.getBorrowingHistory(1L, null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "borrowDate")));
+    }
+
+    private Book book() {
+        Book book = new Book();
+        book.setTitle("History");
+        book.setAuthor("Author");
+        book.setIsbn("isbn-history");
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return bookRepository.save(book);
+    }
+
+    private BookBorrowing active(User user, Book book, LocalDateTime borrowDate) {
+        BookBorrowing loan = new BookBorrowing();
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setBorrowDate(borrowDate);
+        loan.setDueDate(borrowDate.plusDays(14));
+        loan.setStatus(BorrowingStatus.BORROWED);
+        return borrowingRepository.save(loan);
+    }
+
+    private BookBorrowingArchive archived(User user, Book book, LocalDateTime borrowDate, long id) {
+        BookBorrowingArchive loan = new BookBorrowingArchive();
+        loan.setId(id);
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setBorrowDate(borrowDate);
+        loan.setDueDate(borrowDate.plusDays(14));
+        loan.setReturnDate(borrowDate.plusDays(7));
+        loan.setStatus(BorrowingStatus.RETURNED);
+        loan.setArchivedAt(borrowDate.plusDays(30));
+        return archiveRepository.save(loan);
+    }
+}
@@ -0,0 +1,116 @@
+package com.library.lms.service;
+
+import com.library.lms.config.BranchContext;
+import com.library.lms.dto.BookSearchDTO;
+import com.library.lms.model.Book;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import com.library.lms.security.BranchAccess;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BranchSearchServiceTest {
+
+    private static final Map<String, List<Book>> CATALOG = Map.of(
+            "main", List.of(book(1L, "main", "Anathem", 2008), book(2L, "main", "Dune", 1965)),
+            "east", List.of(book(3L, "east", "Contact", 1985), book(4L, "east", "Dune", 1965)));
+
+    private final BookService bookService = mock(BookService.class);
+    private final BranchSearchService searchService = new BranchSearchService(
+            bookService, new BranchAccess(List.of("main", "east"), "main"), 2);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        searchService.shutdown();
+    }
+
+    @Test
+    void memberCannotSearchBranchesTheyCouldNotNameInTheHeader() {
+        signIn(Role.USER);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> searchService.searchAllBranches(new BookSearchDTO(), PageRequest.of(0, 2)));
+        assertEquals(HttpStatus.FORBIDDEN, e.getStatusCode());
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void pagesAreMergedInTheRequestedOrderWithBranchAndIdBreakingTies() {
+        signIn(Role.ADMIN);
+        stubBranchSearches();
+
+        Page<Book> page = searchService.searchAllBranches(new BookSearchDTO(),
+                PageRequest.of(1, 2, Sort.by(Sort.Order.desc("title"))));
+
+        // Dune, Dune, Contact, Anathem: the two Dunes tie on title, and east sorts before main
+        assertEquals(List.of(3L, 1L), page.stream().map(Book::getId).toList());
+        assertEquals(4, page.getTotalElements());
+    }
+
+    @Test
+    void anonymousBrowsingMaySearchEveryBranch() {
+        stubBranchSearches();
+        Page<Book> page = searchService.searchAllBranches(new BookSearchDTO(),
+                PageRequest.of(0, 4, Sort.by("publicationYear", "id")));
+        assertEquals(List.of(2L, 4L, 3L, 1L), page.stream().map(Book::getId).toList());
+    }
+
+    @Test
+    void deepPagesAndUnknownSortsAreRejectedBeforeAnyBranchIsQueried() {
+        ResponseStatusException deep = assertThrows(ResponseStatusException.class,
+                () -> searchService.searchAllBranches(new BookSearchDTO(), PageRequest.of(2, 2)));
+        assertEquals(HttpStatus.BAD_REQUEST, deep.getStatusCode());
+        ResponseStatusException sort = assertThrows(ResponseStatusException.class,
+                () -> searchService.searchAllBranches(new BookSearchDTO(), PageRequest.of(0, 2, Sort.by("borrowings"))));
+        assertEquals(HttpStatus.BAD_REQUEST, sort.getStatusCode());
+        verifyNoInteractions(bookService);
+    }
+
+    // Each branch answers with its own head of the window, sorted the way the database would sort it
+    private void stubBranchSearches() {
+        when(bookService.searchBooks(any(BookSearchDTO.class), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable head = invocation.getArgument(1);
+            List<Book> books = CATALOG.get(BranchContext.get());
+            Comparator<Book> order = Sort.Order.desc("title").equals(head.getSort().getOrderFor("title"))
+                    ? Comparator.comparing(Book::getTitle).reversed()
+                    : Comparator.comparing(Book::getPublicationYear);
+            List<Book> sorted = books.stream().sorted(order).limit(head.getPageSize()).toList();
+            return new PageImpl<>(sorted, head, books.size());
+        });
+    }
+
+    private static void signIn(Role role) {
+        User user = User.builder().username("search-" + role).role(role).branchId("main").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static Book book(Long id, String branchId, String title, int year) {
+        Book book = new Book();
+        book.setId(id);
+        book.setBranchId(branchId);
+        book.setTitle(title);
+        book.setPublicationYear(year);
+        return book;
+    }
+}
@@ -0,0 +1,197 @@
+package com.library.lms.service;
+
+import com.library.lms.LibraryManagementSystemApplication;
+import com.library.lms.config.ReadYourWritesTracker;
+import com.library.lms.model.Book;
+import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BorrowingStatus;
+import com.library.lms.model.ClusterLease;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.repository.ClusterLeaseRepository;
+import com.library.lms.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two application contexts in one JVM stand in for two instances sharing a database
+class ClusterCoordinationTest {
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startNodes() {
+        first = startNode("first");
+        second = startNode("second");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        second.close();
+        first.close();
+    }
+
+    @Test
+    void bookChangeGivesBothNodesTheSameETag() {
+        CatalogVersionService firstVersions = first.getBean(CatalogVersionService.class);
+        CatalogVersionService secondVersions = second.getBean(CatalogVersionService.class);
+        String before = secondVersions.bookETag(42L, "json");
+
+        firstVersions.bookChanged(42L);
+
+        awaitTrue(() -> secondVersions.bookETag(42L, "json").equals(firstVersions.bookETag(42L, "json")));
+        assertNotEquals(before, secondVersions.bookETag(42L, "json"));
+        assertEquals(firstVersions.catalogETag("json"), secondVersions.catalogETag("json"));
+    }
+
+    @Test
+    void eventCommittedAfterALaterOneIsStillDelivered() throws Exception {
+        CatalogVersionService firstVersions = first.getBean(CatalogVersionService.class);
+        CatalogVersionService secondVersions = second.getBean(CatalogVersionService.class);
+        TransactionTemplate transactionTemplate = first.getBean(TransactionTemplate.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The slow transaction takes the lower event id but commits after the second node has read past it
+            transactionTemplate.executeWithoutResult(status -> {
+                firstVersions.bookChanged(100L);
+                try {
+                    executor.submit(() -> firstVersions.bookChanged(101L)).get(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                awaitTrue(() -> secondVersions.bookETag(101L, "json").equals(firstVersions.bookETag(101L, "json")));
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        awaitTrue(() -> secondVersions.bookETag(100L, "json").equals(firstVersions.bookETag(100L, "json")));
+    }
+
+    @Test
+    void writeOnOneNodePinsTheUserOnTheOther() {
+        first.getBean(ReadYourWritesBroadcaster.class).markWrite(7L);
+
+        awaitTrue(() -> second.getBean(ReadYourWritesTracker.class).isPinnedToPrimary(7L));
+    }
+
+    @Test
+    void borrowOnOneNodeUpdatesTheOthersRecommendations() {
+        BookRepository books = first.getBean(BookRepository.class);
+        Book read = books.save(book("cluster-read"));
+        Book next = books.save(book("cluster-next"));
+        RecommendationService firstRecommendations = first.getBean(RecommendationService.class);
+        RecommendationService secondRecommendations = second.getBean(RecommendationService.class);
+
+        firstRecommendations.recordBorrow(900L, read.getId());
+        firstRecommendations.recordBorrow(900L, next.getId());
+
+        awaitTrue(() -> secondRecommendations.getRelatedBooks(read.getId(), 5).stream()
+                .map(Book::getId)
+                .toList()
+                .equals(List.of(next.getId())));
+    }
+
+    @Test
+    void archiveStopsAfterTheBatchInWhichAnotherNodeTookItsLease() {
+        ClusterCoordinator firstCoordinator = first.getBean(ClusterCoordinator.class);
+        ClusterCoordinator secondCoordinator = second.getBean(ClusterCoordinator.class);
+        assertTrue(firstCoordinator.isLeader("borrowing-archive"));
+        assertFalse(secondCoordinator.isLeader("borrowing-archive"));
+        assertFalse(secondCoordinator.renewLeadership("borrowing-archive"));
+        assertTrue(firstCoordinator.renewLeadership("borrowing-archive"));
+
+        // The first node stalls past its TTL and the second takes the job over
+        ClusterLeaseRepository leases = first.getBean(ClusterLeaseRepository.class);
+        ClusterLease lease = leases.findById("borrowing-archive").orElseThrow();
+        lease.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        leases.save(lease);
+        assertTrue(secondCoordinator.isLeader("borrowing-archive"));
+        assertFalse(firstCoordinator.renewLeadership("borrowing-archive"));
+
+        User user = first.getBean(UserRepository.class).save(User.builder()
+                .username("cluster-archive")
+                .email("cluster-archive@example.com")
+                .password("secret")
+                .role(Role.USER)
+                .build());
+        LocalDateTime returned = LocalDateTime.of(2000, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            returnedBorrowing(user, book("cluster-archive-" + i), returned);
+        }
+        int archived = first.getBean(BorrowingArchiveService.class).archiveReturnedBefore(returned.plusDays(1));
+
+        // Only the batch already under way (lms.archive.batch-size=2) is committed
+        assertEquals(2, archived);
+        assertEquals(3, first.getBean(BookBorrowingRepository.class).findIdsByStatusAndReturnDateBefore(
+                BorrowingStatus.RETURNED, returned.plusDays(1), PageRequest.of(0, 10)).size());
+    }
+
+    private static ConfigurableApplicationContext startNode(String name) {
+        // Command-line arguments, because default properties would lose to application-test.properties
+        return new SpringApplicationBuilder(LibraryManagementSystemApplication.class).run(
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:lms-cluster-test;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--server.port=0",
+                "--lms.cluster.enabled=true",
+                "--lms.cluster.poll-interval-ms=50",
+                "--lms.archive.batch-size=2",
+                "--lms.archive.batch-pause-ms=0",
+                "--lms.audit.directory=target/test-audit-log-" + name,
+                "--lms.reminders.outbox-dir=target/test-reminders-" + name);
+    }
+
+    private static Book book(String name) {
+        Book book = new Book();
+        book.setTitle(name);
+        book.setAuthor("Author");
+        book.setIsbn("isbn-" + name);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return book;
+    }
+
+    private static void returnedBorrowing(User user, Book book, LocalDateTime returnDate) {
+        BookBorrowing borrowing = new BookBorrowing();
+        borrowing.setUser(user);
+        borrowing.setBook(first.getBean(BookRepository.class).save(book));
+        borrowing.setBorrowDate(returnDate.minusDays(7));
+        borrowing.setDueDate(returnDate.minusDays(1));
+        borrowing.setReturnDate(returnDate);
+        borrowing.setStatus(BorrowingStatus.RETURNED);
+        first.getBean(BookBorrowingRepository.class).save(borrowing);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached within 10s");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.library.lms.service;
+
+import com.library.lms.dto.DueReminderItem;
+import com.library.lms.dto.ReminderDigest;
+import com.library.lms.model.Book;
+import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BorrowingStatus;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// Batches of one user make every digest come from its own query
+@ActiveProfiles("test")
+@SpringBootTest(properties = "lms.reminders.chunk-size=1")
+class DueDateReminderServiceTest {
+
+    @Autowired
+    private DueDateReminderService reminderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookBorrowingRepository borrowingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockBean
+    private ReminderSender reminderSender;
+
+    @Test
+    void dueWindowIsARangeScanOfTheOpenDueIndex() {
+        // The same predicate the user query sends, in the SQL Hibernate generates for it
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT DISTINCT b.user_id FROM book_borrowing b " +
+                "WHERE b.return_date IS NULL AND b.due_date >= ? AND b.due_date < ? ORDER BY b.user_id",
+                String.class, LocalDateTime.now(), LocalDateTime.now().plusDays(3));
+
+        // H2 lists the conditions it seeks on inside the index comment; anything else would be a residual filter
+        int index = plan.indexOf("IDX_BORROWING_OPEN_DUE:");
+        assertTrue(index >= 0, plan);
+        String seek = plan.substring(index, plan.indexOf("*/", index));
+        assertTrue(seek.contains("RETURN_DATE IS NULL") && seek.contains("DUE_DATE >=") && seek.contains("DUE_DATE <"),
+                plan);
+    }
+
+    @Test
+    void everyUserGetsOneDigestWithAllLoansDueInTheWindow() throws Exception {
+        Queue<ReminderDigest> digests = new ConcurrentLinkedQueue<>();
+        doAnswer(invocation -> digests.add(invocation.getArgument(0))).when(reminderSender).send(any());
+
+        LocalDateTime from = LocalDateTime.now().plusDays(100);
+        LocalDateTime to = from.plusDays(1);
+        User alice = user("keyset-alice");
+        User bob = user("keyset-bob");
+        Set<Long> aliceLoans = Set.of(
+                loan(alice, from.plusHours(1)).getId(),
+                loan(alice, from.plusHours(2)).getId(),
+                loan(alice, from.plusHours(3)).getId());
+        Set<Long> bobLoans = Set.of(loan(bob, from.plusHours(4)).getId());
+        loan(bob, to.plusHours(1));
+
+        assertEquals(2, reminderService.sendRemindersDueBetween(from, to));
+
+        Map<Long, Set<Long>> byUser = digests.stream().collect(Collectors.toMap(
+                ReminderDigest::getUserId,
+                digest -> digest.getItems().stream().map(DueReminderItem::getBorrowingId).collect(Collectors.toSet())));
+        assertEquals(Map.of(alice.getId(), aliceLoans, bob.getId(), bobLoans), byUser);
+
+        // Logged loans are skipped on the next run
+        assertEquals(0, reminderService.sendRemindersDueBetween(from, to));
+        assertEquals(2, digests.size());
+    }
+
+    private User user(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .role(Role.USER)
+                .build());
+    }
+
+    private BookBorrowing loan(User user, LocalDateTime dueDate) {
+        Book book = new Book();
+        book.setTitle("Due " + dueDate);
+        book.setAuthor("Author");
+        book.setIsbn("isbn-" + user.getUsername() + "-" + dueDate);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(0);
+        book = bookRepository.save(book);
+
+        BookBorrowing loan = new BookBorrowing();
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setBorrowDate(LocalDateTime.now());
+        loan.setDueDate(dueDate);
+        loan.setStatus(BorrowingStatus.BORROWED);
+        return borrowingRepository.save(loan);
+    }
+}
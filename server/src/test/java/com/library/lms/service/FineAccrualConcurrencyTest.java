@@ -0,0 +1,135 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.model.BookBorrowing;
+import com.library.lms.model.BorrowingStatus;
+import com.library.lms.model.Role;
+import com.library.lms.model.User;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookRepository;
+import com.library.lms.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "lms.fines.daily-rate-cents=25")
+class FineAccrualConcurrencyTest {
+
+    @Autowired
+    private BookBorrowingService borrowingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookBorrowingRepository borrowingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void returnDuringSweepIsChargedOnce() throws Exception {
+        BookBorrowing loan = overdueLoan("fine-race", 3);
+        CountDownLatch accrued = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Holds the sweep's transaction open after both of its statements have run
+        Future<?> sweep = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            borrowingService.checkOverdueBorrowings();
+            accrued.countDown();
+            awaitQuietly(release);
+        }));
+        assertTrue(accrued.await(10, TimeUnit.SECONDS));
+
+        Future<BookBorrowing> returned = executor.submit(() -> borrowingService.returnBook(loan.getId()));
+        Thread.sleep(300);
+        assertFalse(returned.isDone(), "return must wait for the sweep's row lock");
+
+        release.countDown();
+        sweep.get(10, TimeUnit.SECONDS);
+        BookBorrowing result = returned.get(10, TimeUnit.SECONDS);
+
+        assertEquals(75L, result.getFineCents());
+        assertEquals(75L, balanceOf(loan));
+    }
+
+    @Test
+    void sweepAfterReturnDoesNotChargeAgain() {
+        BookBorrowing loan = overdueLoan("fine-returned", 2);
+
+        borrowingService.returnBook(loan.getId());
+        borrowingService.checkOverdueBorrowings();
+
+        assertEquals(50L, borrowingRepository.findById(loan.getId()).orElseThrow().getFineCents());
+        assertEquals(50L, balanceOf(loan));
+    }
+
+    @Test
+    void repeatedSweepsAccrueOncePerDay() {
+        BookBorrowing loan = overdueLoan("fine-repeat", 4);
+
+        borrowingService.checkOverdueBorrowings();
+        borrowingService.checkOverdueBorrowings();
+
+        assertEquals(100L, borrowingRepository.findById(loan.getId()).orElseThrow().getFineCents());
+        assertEquals(100L, balanceOf(loan));
+    }
+
+    private BookBorrowing overdueLoan(String username, int daysOverdue) {
+        User user = userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("secret")
+                .role(Role.USER)
+                .build());
+
+        Book book = new Book();
+        book.setTitle("Book for " + username);
+        book.setAuthor("Author");
+        book.setIsbn("isbn-" + username);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(0);
+        book = bookRepository.save(book);
+
+        BookBorrowing loan = new BookBorrowing();
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setBorrowDate(LocalDateTime.now().minusDays(20));
+        loan.setDueDate(LocalDateTime.now().minusDays(daysOverdue));
+        loan.setStatus(BorrowingStatus.BORROWED);
+        return borrowingRepository.save(loan);
+    }
+
+    private long balanceOf(BookBorrowing loan) {
+        return userRepository.findById(loan.getUser().getId()).orElseThrow().getOutstandingFineCents();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.library.lms.service;
+
+import com.library.lms.config.ConnectionPoolMetrics;
+import com.library.lms.dto.DiagnosticsSummary;
+import com.library.lms.dto.JfrRecordingInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrDiagnosticsServiceTest {
+
+    private static final long HOLD_MILLIS = 60;
+
+    @TempDir
+    Path recordingDir;
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private JfrDiagnosticsService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+        scheduler.shutdown();
+    }
+
+    @Test
+    void sitesAreRankedByWeightAndOverflowSharesOneRow() {
+        JfrDiagnosticsService.SiteTable table = new JfrDiagnosticsService.SiteTable(2);
+        table.add("light", 5, 5);
+        table.add("heavy", 40, 30);
+        table.add("heavy", 20, 10);
+        table.add("late-a", 7, 7);
+        table.add("late-b", 8, 8);
+        table.add("light", 1, 1);
+
+        List<DiagnosticsSummary.Site> top = table.top(10);
+        assertEquals(List.of("heavy", JfrDiagnosticsService.SiteTable.OTHER, "light"),
+                top.stream().map(DiagnosticsSummary.Site::getSite).toList());
+        assertEquals(new DiagnosticsSummary.Site("heavy", 2, 60, 30), top.get(0));
+        assertEquals(new DiagnosticsSummary.Site(JfrDiagnosticsService.SiteTable.OTHER, 2, 15, 8), top.get(1));
+        assertEquals(new DiagnosticsSummary.Site("light", 2, 6, 5), top.get(2));
+        assertEquals(1, table.top(1).size());
+    }
+
+    @Test
+    void liveSummaryKeepsLockWaitsInApplicationCodeAndSkipsIdlePoolThreads() throws Exception {
+        service = service(2);
+        service.startLiveSummary(60);
+        ExecutorService idlePool = Executors.newFixedThreadPool(2);
+        try {
+            Object monitor = new Object();
+            ReentrantLock lock = new ReentrantLock();
+
+            List<DiagnosticsSummary.Site> contended = List.of();
+            Instant deadline = Instant.now().plusSeconds(20);
+            while (Instant.now().isBefore(deadline)) {
+                // Wakes a worker that sat idle since the last pass; a park is only reported once it ends,
+                // and this one ends with no application frame on the parked thread's stack
+                idlePool.submit(() -> { }).get();
+                contendOnMonitor(monitor);
+                contendOnLock(lock);
+                contended = service.getSummary().getContendedLocks();
+                if (contains(contended, "java.lang.Object @ ")
+                        && contains(contended, ReentrantLock.class.getName() + "$NonfairSync @ ")) {
+                    break;
+                }
+                Thread.sleep(200);
+            }
+
+            assertTrue(contains(contended, "java.lang.Object @ " + getClass().getName()), contended.toString());
+            assertTrue(contains(contended, ReentrantLock.class.getName() + "$NonfairSync @ " + getClass().getName()),
+                    contended.toString());
+            for (DiagnosticsSummary.Site site : contended) {
+                assertTrue(site.getSite().contains(" @ com.library.lms."), "site outside the application: " + site);
+            }
+        } finally {
+            idlePool.shutdownNow();
+        }
+    }
+
+    @Test
+    void onlyTheConfiguredNumberOfRecordingsRunAtOnce() {
+        service = service(1);
+        JfrRecordingInfo first = service.startRecording("default", 60);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.startRecording("default", 60));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+
+        service.stopRecording(first.getId());
+        JfrRecordingInfo second = service.startRecording("default", 60);
+        service.stopRecording(second.getId());
+        assertEquals(2, service.listRecordings().size());
+    }
+
+    @Test
+    void filesPastRetentionAreDeletedAndRecentOnesKept() throws Exception {
+        service = service(2);
+        JfrRecordingInfo finished = service.startRecording("default", 60);
+        service.stopRecording(finished.getId());
+        Path kept = service.getRecordingFile(finished.getId());
+        Path stale = Files.writeString(recordingDir.resolve("lms-1.jfr"), "left by an earlier run");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofHours(25))));
+        Path recent = Files.writeString(recordingDir.resolve("lms-2.jfr"), "left by an earlier run");
+        Path unrelated = Files.writeString(recordingDir.resolve("notes.txt"), "not a recording");
+        Files.setLastModifiedTime(unrelated, FileTime.from(Instant.now().minus(Duration.ofHours(25))));
+
+        service.deleteExpiredRecordings();
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(recent));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(kept));
+        assertEquals(1, service.listRecordings().size());
+    }
+
+    private JfrDiagnosticsService service(int maxActiveRecordings) {
+        scheduler.initialize();
+        return new JfrDiagnosticsService(new ConnectionPoolMetrics(), scheduler, recordingDir.toString(),
+                600, 10, 15, maxActiveRecordings, 24);
+    }
+
+    private static void contendOnMonitor(Object monitor) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (monitor) {
+                held.countDown();
+                sleep(HOLD_MILLIS);
+            }
+        });
+        holder.start();
+        held.await();
+        synchronized (monitor) {
+            // Entered only once the holder lets go
+        }
+        holder.join();
+    }
+
+    private static void contendOnLock(ReentrantLock lock) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                sleep(HOLD_MILLIS);
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        held.await();
+        lock.lock();
+        lock.unlock();
+        holder.join();
+    }
+
+    private static boolean contains(List<DiagnosticsSummary.Site> sites, String prefix) {
+        return sites.stream().anyMatch(site -> site.getSite().startsWith(prefix));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
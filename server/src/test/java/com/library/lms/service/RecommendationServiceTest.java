@@ -0,0 +1,93 @@
+package com.library.lms.service;
+
+import com.library.lms.model.Book;
+import com.library.lms.repository.BookBorrowingRepository;
+import com.library.lms.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class RecommendationServiceTest {
+
+    private static final long USER_ID = 9_001L;
+
+    @Autowired
+    private RecommendationService recommendationService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @SpyBean
+    private BookBorrowingRepository borrowingRepository;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rolledBackBorrowIsNotCounted() {
+        Book first = book("rollback-first");
+        Book second = book("rollback-second");
+        recommendationService.recordBorrow(USER_ID, first.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            recommendationService.recordBorrow(USER_ID, second.getId());
+            status.setRollbackOnly();
+        });
+        assertTrue(recommendationService.getRelatedBooks(first.getId(), 5).isEmpty());
+
+        transactionTemplate.executeWithoutResult(status ->
+                recommendationService.recordBorrow(USER_ID, second.getId()));
+        assertEquals(List.of(second.getId()), relatedIds(first));
+    }
+
+    @Test
+    void borrowRecordedDuringRebuildSurvivesTheSwap() {
+        Book first = book("rebuild-first");
+        Book second = book("rebuild-second");
+
+        // The snapshot holds the first loan; another thread records a second one while it is being read
+        doAnswer(invocation -> {
+            executor.submit(() -> recommendationService.recordBorrow(USER_ID + 1, second.getId()))
+                    .get(10, TimeUnit.SECONDS);
+            return Stream.<Object[]>of(new Object[]{USER_ID + 1, first.getId()});
+        }).when(borrowingRepository).streamUserBookPairs();
+
+        recommendationService.rebuild();
+
+        assertEquals(List.of(second.getId()), relatedIds(first));
+    }
+
+    private List<Long> relatedIds(Book book) {
+        return recommendationService.getRelatedBooks(book.getId(), 5).stream().map(Book::getId).toList();
+    }
+
+    private Book book(String name) {
+        Book book = new Book();
+        book.setTitle(name);
+        book.setAuthor("Author");
+        book.setIsbn("isbn-" + name);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return bookRepository.save(book);
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.lms.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditSegmentTest {
+
+    private static final int SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopeningSkipsATornRecordAndAppendsOverIt() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 1_000L, SIZE);
+        append(segment, "first", "second");
+        int intact = segment.getUsedBytes();
+        // A crash after the length went in but before the rest of the record did
+        ByteBuffer torn = record("third");
+        torn.putInt(4, 0);
+        segment.append(torn);
+        segment.seal();
+
+        AuditSegment reopened = AuditSegment.open(segment.getPath(), true, SIZE);
+        assertEquals(intact, reopened.getUsedBytes());
+        assertEquals(List.of("first", "second"), payloads(reopened));
+
+        append(reopened, "fourth");
+        reopened.seal();
+        assertEquals(List.of("first", "second", "fourth"), payloads(AuditSegment.open(segment.getPath(), false, SIZE)));
+    }
+
+    @Test
+    void reopeningStopsAtGarbageAfterTheLastRecord() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 2_000L, SIZE);
+        append(segment, "kept");
+        int intact = segment.getUsedBytes();
+        segment.seal();
+        try (FileChannel channel = FileChannel.open(segment.getPath(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5, 6, 7, 8}), intact);
+        }
+
+        AuditSegment reopened = AuditSegment.open(segment.getPath(), true, SIZE);
+        assertEquals(intact, reopened.getUsedBytes());
+        append(reopened, "after");
+        reopened.seal();
+        assertEquals(List.of("kept", "after"), payloads(AuditSegment.open(segment.getPath(), false, SIZE)));
+    }
+
+    @Test
+    void compactionKeepsTheRecordsOfEverySourceAndTrimsTheTail() throws IOException {
+        AuditSegment older = AuditSegment.create(dir, 3_000L, SIZE);
+        append(older, "a", "b");
+        older.seal();
+        AuditSegment newer = AuditSegment.create(dir, 4_000L, SIZE);
+        append(newer, "c");
+        newer.seal();
+
+        Path target = dir.resolve("merged.tmp");
+        AuditSegment merged = AuditSegment.writeCompacted(target, List.of(older, newer));
+
+        assertEquals(3_000L, merged.getCreatedAt());
+        assertEquals(older.getUsedBytes() + newer.getUsedBytes() - AuditSegment.HEADER_SIZE, merged.getUsedBytes());
+        AuditSegment reopened = AuditSegment.open(target, false, SIZE);
+        assertEquals(merged.getUsedBytes(), reopened.getUsedBytes());
+        assertEquals(List.of("a", "b", "c"), payloads(reopened));
+    }
+
+    @Test
+    void appendReportsAFullSegment() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 5_000L, AuditSegment.HEADER_SIZE + 32);
+        assertTrue(segment.append(record("fits")));
+        assertFalse(segment.append(record("does not fit any more")));
+    }
+
+    private static void append(AuditSegment segment, String... payloads) {
+        for (String payload : payloads) {
+            segment.append(record(payload));
+        }
+    }
+
+    // Laid out the way AuditLogService encodes: [length placeholder, crc32 of the payload, payload]
+    private static ByteBuffer record(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(AuditSegment.RECORD_PREFIX + bytes.length);
+        record.putInt(0).putInt((int) crc.getValue()).put(bytes).flip();
+        return record;
+    }
+
+    private static List<String> payloads(AuditSegment segment) throws IOException {
+        List<String> payloads = new ArrayList<>();
+        segment.scan(payload -> {
+            payloads.add(StandardCharsets.UTF_8.decode(payload).toString());
+            return true;
+        });
+        return payloads;
+    }
+}